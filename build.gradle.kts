@@ -15,11 +15,6 @@ repositories {
 dependencies {
     implementation("org.ow2.asm:asm:9.6")
 
-    implementation("com.github.ben-manes.caffeine:caffeine:3.1.8") {
-        exclude(group = "org.checkerframework")
-        exclude(group = "com.google.errorprone")
-    }
-
     compileOnlyApi("org.jetbrains:annotations:24.0.1")
 }
 
@@ -35,7 +30,7 @@ tasks.shadowJar {
     manifest {
         attributes["Main-Class"] = application.mainClass.get()
     }
-    for (pkg in listOf("org.objectweb.asm", "com.github.benmanes.caffeine")) {
+    for (pkg in listOf("org.objectweb.asm")) {
         relocate(pkg, "glang.shaded.$pkg")
     }
 }
@@ -51,8 +46,6 @@ val generateObjectInvokers by tasks.registering {
             w.println("import glang.exception.UninvokableObjectException;")
             w.println("import glang.runtime.lookup.MethodLookup;")
             w.println()
-            w.println("import java.util.List;")
-            w.println()
             w.println("// WARNING: This class is generated by the generateObjectInvokers build task, DO NOT MODIFY.")
             w.println("// WARNING: If changes are needed, modify the task, not this file.")
             w.println("public final class ObjectInvokers {")
@@ -78,21 +71,25 @@ val generateObjectInvokers by tasks.registering {
                 w.println("        if (target instanceof MethodLookup lookup) {")
 
                 if (argCount > 0) {
-                    w.print("            return lookup.getInvoker(List.of(")
+                    val args = (0 until argCount).joinToString(", ") { "arg$it" }
+                    repeat(argCount) { arg ->
+                        w.println("            final Class<?> type$arg = GlangRuntime.getClass(arg$arg);")
+                    }
+                    w.println("            int hash = $argCount;")
                     repeat(argCount) { arg ->
-                        if (arg > 0) {
-                            w.print(", ")
-                        }
-                        w.print("\n                GlangRuntime.getClass(arg$arg)")
+                        w.println("            hash = MethodLookup.hashArgType(hash, type$arg);")
                     }
-                    w.print("\n            )).invoke(")
+                    w.println("            final MethodLookup.CachedInvoker cached = lookup.findCachedInvoker(hash);")
+                    w.print("            if (cached != null && cached.argCount() == $argCount")
                     repeat(argCount) { arg ->
-                        if (arg > 0) {
-                            w.print(", ")
-                        }
-                        w.print("arg$arg")
+                        w.print(" &&\n                cached.matchesArg($arg, type$arg)")
                     }
-                    w.println(");")
+                    w.println(") {")
+                    w.println("                return cached.invoker().invoke($args);")
+                    w.println("            }")
+                    w.print("            return lookup.resolveInvoker(new Class<?>[] {")
+                    w.print((0 until argCount).joinToString(", ") { "type$it" })
+                    w.println("}).invoke($args);")
                 } else {
                     w.println("            return lookup.invoke();")
                 }
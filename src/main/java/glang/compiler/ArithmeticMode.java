@@ -0,0 +1,38 @@
+package glang.compiler;
+
+import java.util.Locale;
+
+/**
+ * How integer arithmetic in a namespace handles overflow.
+ */
+public enum ArithmeticMode {
+    /**
+     * {@code int} and {@code long} arithmetic wraps on overflow, like in Java.
+     */
+    WRAPPING,
+    /**
+     * {@code int} arithmetic that overflows produces a {@code long}, and {@code long} arithmetic that overflows
+     * produces a {@link java.math.BigInteger}. Mixed {@code Integer}, {@code Long}, and {@code BigInteger} operands
+     * are widened to the larger type.
+     */
+    PROMOTING;
+
+    /**
+     * The mode set with {@code -Dglang.arithmeticMode.<namespacePath>}, falling back to
+     * {@code -Dglang.arithmeticMode}, and then {@link #WRAPPING}.
+     */
+    public static ArithmeticMode forNamespace(String namespacePath) {
+        String value = System.getProperty("glang.arithmeticMode." + namespacePath);
+        if (value == null) {
+            value = System.getProperty("glang.arithmeticMode");
+        }
+        if (value == null) {
+            return WRAPPING;
+        }
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown arithmetic mode " + value + " for " + namespacePath, e);
+        }
+    }
+}
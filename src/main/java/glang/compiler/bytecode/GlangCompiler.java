@@ -1,11 +1,14 @@
 package glang.compiler.bytecode;
 
+import glang.compiler.ArithmeticMode;
 import glang.compiler.SourceLocation;
 import glang.compiler.error.CompileFailedException;
 import glang.compiler.error.ErrorCollector;
+import glang.compiler.token.GlangTokenizer;
 import glang.compiler.token.Token;
 import glang.compiler.token.TokenType;
 import glang.compiler.tree.ASTNode;
+import glang.compiler.tree.GlangOptimizer;
 import glang.compiler.tree.GlangTreeifier;
 import glang.compiler.tree.StatementList;
 import glang.compiler.tree.expression.*;
@@ -13,6 +16,7 @@ import glang.compiler.tree.statement.*;
 import org.objectweb.asm.*;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -26,14 +30,57 @@ public class GlangCompiler {
     private static final String j_i_PrintStream_DESC = "L" + j_i_PrintStream + ";";
     private static final String g_r_ConstantBootstrap = "glang/runtime/ConstantBootstrap";
     private static final String g_r_GlangRuntime = "glang/runtime/GlangRuntime";
-    private static final String g_r_ObjectInvokers = "glang/runtime/ObjectInvokers";
+    private static final String g_r_InvokeBootstrap = "glang/runtime/InvokeBootstrap";
+    private static final String g_r_OperatorBootstrap = "glang/runtime/OperatorBootstrap";
+    private static final String g_r_FieldBootstrap = "glang/runtime/FieldBootstrap";
+    private static final String g_r_GlobalBootstrap = "glang/runtime/GlobalBootstrap";
+    private static final String g_r_ConditionBootstrap = "glang/runtime/ConditionBootstrap";
+    private static final String g_r_GlobalsMap = "glang/runtime/GlobalsMap";
 
     private static final String GLOBALS = "$$GLOBALS$$";
     private static final String GLOBALS_DESC = "Ljava/util/Map;";
     private static final String GLOBALS_SIG = "Ljava/util/Map<Ljava/lang/String;Ljava/lang/Object;>;";
+    private static final String SLOTS = "$$SLOTS$$";
+    private static final String SLOTS_DESC = "[Ljava/lang/Object;";
 
     private static final String CONDY_DESC_PREFIX = "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;";
     private static final String IMPORT_DESC = "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;[Ljava/lang/String;)Ljava/lang/invoke/CallSite;";
+    private static final String INDY_DESC = "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;)Ljava/lang/invoke/CallSite;";
+    private static final String NAMED_INDY_DESC = "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;Ljava/lang/String;)Ljava/lang/invoke/CallSite;";
+
+    private static final Handle INVOKE_BOOTSTRAP = new Handle(
+        Opcodes.H_INVOKESTATIC, g_r_InvokeBootstrap, "invoke", INDY_DESC, false
+    );
+    private static final Handle INVOKE_IMPORT_BOOTSTRAP = new Handle(
+        Opcodes.H_INVOKESTATIC, g_r_InvokeBootstrap, "invokeImport", INDY_DESC, false
+    );
+    private static final Handle BINARY_OPERATOR_BOOTSTRAP = new Handle(
+        Opcodes.H_INVOKESTATIC, g_r_OperatorBootstrap, "binaryOperator", NAMED_INDY_DESC, false
+    );
+    private static final Handle BINARY_CONDITION_BOOTSTRAP = new Handle(
+        Opcodes.H_INVOKESTATIC, g_r_OperatorBootstrap, "binaryCondition", NAMED_INDY_DESC, false
+    );
+    private static final Handle PROMOTING_OPERATOR_BOOTSTRAP = new Handle(
+        Opcodes.H_INVOKESTATIC, g_r_OperatorBootstrap, "promotingOperator", NAMED_INDY_DESC, false
+    );
+    private static final Handle PROMOTING_CONDITION_BOOTSTRAP = new Handle(
+        Opcodes.H_INVOKESTATIC, g_r_OperatorBootstrap, "promotingCondition", NAMED_INDY_DESC, false
+    );
+    private static final Handle GET_FIELD_BOOTSTRAP = new Handle(
+        Opcodes.H_INVOKESTATIC, g_r_FieldBootstrap, "getField", NAMED_INDY_DESC, false
+    );
+    private static final Handle SET_FIELD_BOOTSTRAP = new Handle(
+        Opcodes.H_INVOKESTATIC, g_r_FieldBootstrap, "setField", NAMED_INDY_DESC, false
+    );
+    private static final Handle GET_GLOBAL_BOOTSTRAP = new Handle(
+        Opcodes.H_INVOKESTATIC, g_r_GlobalBootstrap, "getGlobal", NAMED_INDY_DESC, false
+    );
+    private static final Handle IS_TRUTHY_BOOTSTRAP = new Handle(
+        Opcodes.H_INVOKESTATIC, g_r_ConditionBootstrap, "isTruthy", INDY_DESC, false
+    );
+
+    // Including the target. The JVM allows 255 parameter slots, but a few are needed by the method handles behind the call site.
+    private static final int MAX_INDY_INVOKE_ARITY = 253;
 
     private static final Map<BinaryExpression.Operator, String> BINARY_OPERATORS = new EnumMap<>(Map.of(
         BinaryExpression.Operator.ADD, "add",
@@ -48,20 +95,32 @@ public class GlangCompiler {
         BinaryExpression.Operator.LE, "lessThanEqual",
         BinaryExpression.Operator.GE, "greaterThanEqual"
     ));
+    private static final Set<BinaryExpression.Operator> CONDITION_OPERATORS = EnumSet.of(
+        BinaryExpression.Operator.EQ,
+        BinaryExpression.Operator.LT,
+        BinaryExpression.Operator.GT,
+        BinaryExpression.Operator.LE,
+        BinaryExpression.Operator.GE
+    );
 
     private final String namespacePath;
     private final String className;
     private final String classNameInternal;
-    private final StatementList code;
+    private StatementList code;
     private final Function<String, ClassWriter> visitors;
     private final ErrorCollector errorCollector;
 
     private boolean insertDebugPrints = false;
+    private boolean optimize = true;
+    private ArithmeticMode arithmeticMode;
 
     private final StateStack<ClassState> classStates = new StateStack<>(ClassState::new);
     private final StateStack<MethodState> methodStates = new StateStack<>(MethodState::new);
     private final StateStack<ScopeState> scopeStates = new StateStack<>(ScopeState::new);
     private final StateStack<LoopState> loopStates = new StateStack<>(LoopState::new);
+    private final Map<String, Integer> globalSlots = new LinkedHashMap<>();
+    private final Set<String> importedGlobals = new HashSet<>();
+    private Map<VariableDeclaration, LocalType> localTypes = Map.of();
 
     public GlangCompiler(String namespacePath, StatementList code, Function<String, ClassWriter> visitors, ErrorCollector errorCollector) {
         this.namespacePath = namespacePath;
@@ -70,12 +129,27 @@ public class GlangCompiler {
         this.code = code;
         this.visitors = visitors;
         this.errorCollector = errorCollector;
+        this.arithmeticMode = ArithmeticMode.forNamespace(namespacePath);
     }
 
     public GlangCompiler(String namespacePath, String source, Function<String, ClassWriter> visitors) throws CompileFailedException {
         this(namespacePath, GlangTreeifier.treeify(source), visitors, new ErrorCollector(source));
     }
 
+    /**
+     * @param source The UTF-8 encoded source, such as a memory-mapped file. It's tokenized as it's parsed, without
+     * being decoded into a {@code String} first.
+     */
+    public GlangCompiler(String namespacePath, ByteBuffer source, Function<String, ClassWriter> visitors) throws CompileFailedException {
+        this(namespacePath, visitors, new GlangTokenizer(source), new ErrorCollector(source));
+    }
+
+    private GlangCompiler(
+        String namespacePath, Function<String, ClassWriter> visitors, GlangTokenizer tokenizer, ErrorCollector errorCollector
+    ) throws CompileFailedException {
+        this(namespacePath, GlangTreeifier.treeify(tokenizer, errorCollector), visitors, errorCollector);
+    }
+
     public static void compile(
         String namespacePath, StatementList code, Function<String, ClassWriter> visitors, ErrorCollector errorCollector
     ) throws CompileFailedException {
@@ -119,11 +193,37 @@ public class GlangCompiler {
         this.insertDebugPrints = insertDebugPrints;
     }
 
+    public boolean optimize() {
+        return optimize;
+    }
+
+    /**
+     * Whether to run {@link GlangOptimizer} on the tree before compiling it. Enabled by default.
+     */
+    public void optimize(boolean optimize) {
+        this.optimize = optimize;
+    }
+
+    public ArithmeticMode arithmeticMode() {
+        return arithmeticMode;
+    }
+
+    /**
+     * Defaults to {@link ArithmeticMode#forNamespace}.
+     */
+    public void arithmeticMode(ArithmeticMode arithmeticMode) {
+        this.arithmeticMode = arithmeticMode;
+    }
+
     public void compile() {
         compile((String)null);
     }
 
     public void compile(String sourceFile) {
+        if (optimize) {
+            code = GlangOptimizer.optimize(code, arithmeticMode);
+            localTypes = LocalTypeInference.infer(code, Set.of("args"), arithmeticMode);
+        }
         final ClassState clazz = classStates.push(classNameInternal);
         clazz.visitor = getVisitor(className);
         clazz.visitor.visit(Opcodes.V17, Opcodes.ACC_PUBLIC, clazz.name, null, j_l_Object, null);
@@ -134,16 +234,35 @@ public class GlangCompiler {
             Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL,
             GLOBALS, GLOBALS_DESC, GLOBALS_SIG, null
         );
+        clazz.visitor.visitField(
+            Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL,
+            SLOTS, SLOTS_DESC, null, null
+        );
+        collectGlobals(code, true);
         {
             final MethodVisitor mv = clazz.visitor.visitMethod(
                 Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC,
                 "<clinit>", "()V", null, null
             );
             mv.visitCode();
-            mv.visitTypeInsn(Opcodes.NEW, "java/util/LinkedHashMap");
+            mv.visitTypeInsn(Opcodes.NEW, g_r_GlobalsMap);
+            mv.visitInsn(Opcodes.DUP);
+            mv.visitLdcInsn(new ConstantDynamic(
+                "$glang$globals$", "Ljava/util/List;",
+                new Handle(
+                    Opcodes.H_INVOKESTATIC,
+                    g_r_ConstantBootstrap,
+                    "stringList",
+                    CONDY_DESC_PREFIX + "[Ljava/lang/String;)Ljava/util/List;",
+                    false
+                ),
+                globalSlots.keySet().toArray()
+            ));
+            mv.visitMethodInsn(Opcodes.INVOKESPECIAL, g_r_GlobalsMap, "<init>", "(Ljava/util/List;)V", false);
             mv.visitInsn(Opcodes.DUP);
-            mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/util/LinkedHashMap", "<init>", "()V", false);
             mv.visitFieldInsn(Opcodes.PUTSTATIC, classNameInternal, GLOBALS, GLOBALS_DESC);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, g_r_GlobalsMap, "getSlots", "()" + SLOTS_DESC, false);
+            mv.visitFieldInsn(Opcodes.PUTSTATIC, classNameInternal, SLOTS, SLOTS_DESC);
             mv.visitInsn(Opcodes.RETURN);
             mv.visitMaxs(0, 0);
             mv.visitEnd();
@@ -157,7 +276,7 @@ public class GlangCompiler {
         );
         method.visitor.visitCode();
         final ScopeState scope = scopeStates.push("");
-        final VariableInfo argsVariable = new VariableInfo(method.currentLocal++);
+        final VariableInfo argsVariable = method.newVariable(LocalType.OBJECT);
         argsVariable.isArg = true;
         scope.variables.put("args", argsVariable);
         method.visitor.visitLabel(argsVariable.startLabel);
@@ -209,6 +328,10 @@ public class GlangCompiler {
         final MethodVisitor visitor = method.visitor;
 
         if (statement instanceof ExpressionStatement expressionStatement) {
+            if (!insertDebugPrints && expressionStatement.getExpression() instanceof AssignmentExpression assignment) {
+                compileAssignment(assignment, false);
+                return;
+            }
             if (insertDebugPrints) {
                 method.checkLine(statement);
                 final SourceLocation location = expressionStatement.getStartLocation();
@@ -258,18 +381,18 @@ public class GlangCompiler {
             if (variable != null) {
                 error(statement, "Duplicate local variable " + Token.Identifier.prettyPrint(decl.getName()));
             } else {
-                variable = new VariableInfo(method.currentLocal++);
+                variable = method.newVariable(localTypes.getOrDefault(decl, LocalType.OBJECT));
                 scope.variables.put(decl.getName(), variable);
                 isNew = true;
             }
             if (decl.getInitializer() != null) {
-                compileExpression(decl.getInitializer());
+                compileValue(decl.getInitializer(), variable.type);
             } else {
                 method.checkLine(statement);
                 visitor.visitInsn(Opcodes.ACONST_NULL);
             }
             method.checkLine(statement);
-            visitor.visitVarInsn(Opcodes.ASTORE, variable.index);
+            visitor.visitVarInsn(variable.type.storeOpcode, variable.index);
             if (isNew) {
                 visitor.visitLabel(variable.startLabel);
             }
@@ -295,13 +418,7 @@ public class GlangCompiler {
             }
 
             visitor.visitLabel(conditionStart);
-            compileExpression(condition);
-            method.checkLine(ifOrWhileStatement);
-            visitor.visitMethodInsn(
-                Opcodes.INVOKESTATIC, g_r_GlangRuntime, "isTruthy",
-                "(Ljava/lang/Object;)Z",
-                false
-            );
+            compileCondition(condition, ifOrWhileStatement);
             visitor.visitJumpInsn(isNot ? Opcodes.IFNE : Opcodes.IFEQ, mainBodyEnd);
 
             if (IfOrWhileStatement.isBlockedBody(ifOrWhileStatement.getBody())) {
@@ -346,13 +463,11 @@ public class GlangCompiler {
                 final ScopeState scope = scopeStates.get();
                 VariableInfo variable = null;
                 boolean isNew = false;
-                if (scopeStates.size() == 1) {
-                    visitor.visitFieldInsn(Opcodes.GETSTATIC, classNameInternal, GLOBALS, GLOBALS_DESC);
-                    visitor.visitLdcInsn(importStatement.getTarget());
-                } else {
+                if (scopeStates.size() > 1) {
                     variable = scope.variables.get(importStatement.getTarget());
                     if (variable == null) {
-                        variable = new VariableInfo(method.currentLocal++);
+                        variable = method.newVariable(LocalType.OBJECT);
+                        variable.isImport = true;
                         scope.variables.put(importStatement.getTarget(), variable);
                         isNew = true;
                     }
@@ -370,12 +485,7 @@ public class GlangCompiler {
                     importStatement.getParentPath().toArray()
                 );
                 if (variable == null) {
-                    visitor.visitMethodInsn(
-                        Opcodes.INVOKEINTERFACE, "java/util/Map", "put",
-                        "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;",
-                        true
-                    );
-                    visitor.visitInsn(Opcodes.POP);
+                    storeGlobal(importStatement.getTarget());
                 } else {
                     visitor.visitVarInsn(Opcodes.ASTORE, variable.index);
                     if (isNew) {
@@ -421,7 +531,7 @@ public class GlangCompiler {
                 method.checkLine(expression);
                 visitor.visitInsn(Opcodes.SWAP);
                 argCount++;
-                if (argCount > 16) {
+                if (argCount >= MAX_INDY_INVOKE_ARITY) {
                     visitInt(visitor, argCount);
                     visitor.visitTypeInsn(Opcodes.ANEWARRAY, j_l_Object);
                     visitor.visitInsn(Opcodes.DUP_X1);
@@ -447,13 +557,15 @@ public class GlangCompiler {
             } else {
                 compileExpression(call.getTarget());
             }
-            if (argCount < 17) {
+            if (argCount < MAX_INDY_INVOKE_ARITY) {
                 call.getArgs().forEach(this::compileExpression);
                 method.checkLine(expression);
-                visitor.visitMethodInsn(
-                    Opcodes.INVOKESTATIC, g_r_ObjectInvokers, "invokeObject",
+                final boolean imported = call.getTarget() instanceof IdentifierExpression identifier &&
+                    isImport(identifier.getValue());
+                visitor.visitInvokeDynamicInsn(
+                    imported ? "invokeImport" : "invoke",
                     "(" + j_l_Object_DESC.repeat(argCount + 1) + ")" + j_l_Object_DESC,
-                    false
+                    imported ? INVOKE_IMPORT_BOOTSTRAP : INVOKE_BOOTSTRAP
                 );
             } else {
                 compileArray(visitor, call.getArgs(), this::compileExpression);
@@ -469,7 +581,7 @@ public class GlangCompiler {
             method.checkLine(expression);
             compileAccess(access, access.getOperator());
         } else if (expression instanceof AssignmentExpression assignment) {
-            compileAssignment(assignment);
+            compileAssignment(assignment, true);
         } else if (expression instanceof UnaryExpression unary) {
             if (unary.getOperator() == UnaryExpression.Operator.NEGATE && unary.getOperand() instanceof NumberExpression numExpr) {
                 final Number num = numExpr.getValue();
@@ -491,29 +603,38 @@ public class GlangCompiler {
                 }
             }
             if (unary.getOperator() == UnaryExpression.Operator.NOT) {
-                if (unary.getOperand() instanceof UnaryExpression subUnary && subUnary.getOperator() == UnaryExpression.Operator.NOT) {
-                    compileExpression(subUnary.getOperand());
-                    method.checkLine(expression);
-                    visitor.visitMethodInsn(
-                        Opcodes.INVOKESTATIC, g_r_GlangRuntime, "isTruthyW",
-                        "(Ljava/lang/Object;)Ljava/lang/Boolean;",
-                        false
-                    );
-                } else {
-                    compileExpression(unary.getOperand());
-                    method.checkLine(expression);
-                    visitor.visitMethodInsn(
-                        Opcodes.INVOKESTATIC, g_r_GlangRuntime, "isFalseyW",
-                        "(Ljava/lang/Object;)Ljava/lang/Boolean;",
-                        false
-                    );
+                final boolean doubleNot = unary.getOperand() instanceof UnaryExpression subUnary
+                    && subUnary.getOperator() == UnaryExpression.Operator.NOT;
+                compileExpression(doubleNot ? ((UnaryExpression)unary.getOperand()).getOperand() : unary.getOperand());
+                method.checkLine(expression);
+                visitor.visitInvokeDynamicInsn("isTruthy", "(Ljava/lang/Object;)Z", IS_TRUTHY_BOOTSTRAP);
+                if (!doubleNot) {
+                    visitor.visitInsn(Opcodes.ICONST_1);
+                    visitor.visitInsn(Opcodes.IXOR);
                 }
+                visitor.visitMethodInsn(
+                    Opcodes.INVOKESTATIC, "java/lang/Boolean", "valueOf", "(Z)Ljava/lang/Boolean;", false
+                );
                 return;
             }
             error(expression, "UnaryExpression not implemented yet");
             method.checkLine(expression);
             visitor.visitInsn(Opcodes.ACONST_NULL);
         } else if (expression instanceof BinaryExpression binary) {
+            final LocalType type = typeOf(binary);
+            if (type.isPrimitive()) {
+                compileTyped(binary, type);
+                box(type);
+                return;
+            }
+            final LocalType comparisonType = comparisonType(binary);
+            if (comparisonType != null) {
+                compileComparison(binary, comparisonType, binary);
+                visitor.visitMethodInsn(
+                    Opcodes.INVOKESTATIC, "java/lang/Boolean", "valueOf", "(Z)Ljava/lang/Boolean;", false
+                );
+                return;
+            }
             compileExpression(binary.getLeft());
             compileExpression(binary.getRight());
             method.checkLine(expression);
@@ -522,11 +643,11 @@ public class GlangCompiler {
                 error(expression, "Binary operator '" + binary.getOperator() + "' not implemented");
                 visitor.visitInsn(Opcodes.POP);
             } else {
-                visitor.visitLdcInsn(methodName);
-                visitor.visitMethodInsn(
-                    Opcodes.INVOKESTATIC, g_r_GlangRuntime, "binaryOperator",
-                    "(Ljava/lang/Object;Ljava/lang/Object;Ljava/lang/String;)Ljava/lang/Object;",
-                    false
+                visitor.visitInvokeDynamicInsn(
+                    "binaryOperator",
+                    "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;",
+                    arithmeticMode == ArithmeticMode.PROMOTING ? PROMOTING_OPERATOR_BOOTSTRAP : BINARY_OPERATOR_BOOTSTRAP,
+                    methodName
                 );
             }
         } else {
@@ -536,91 +657,289 @@ public class GlangCompiler {
         }
     }
 
-    private void compileAssignment(AssignmentExpression assignment) {
+    /**
+     * @param needResult Whether the assigned value should be left on the stack
+     */
+    private void compileAssignment(AssignmentExpression assignment, boolean needResult) {
         final MethodState method = methodStates.get();
         final MethodVisitor visitor = method.visitor;
         if (assignment.getOperator() != TokenType.EQUAL) {
             error(assignment, "Only = is supported for AssignmentExpression currently");
             compileExpression(assignment.getValue());
+            popIfUnused(needResult);
             return;
         }
         if (assignment.getVariable() instanceof IdentifierExpression identifier) {
-            boolean found = false;
-            for (final ScopeState scope : (Iterable<ScopeState>)scopeStates.stack::descendingIterator) {
-                final VariableInfo variable = scope.variables.get(identifier.getValue());
-                if (variable != null) {
-                    found = true;
-                    variable.makeNonFinal(identifier);
-                    compileExpression(assignment.getValue());
-                    method.checkLine(assignment);
-                    visitor.visitInsn(Opcodes.DUP);
-                    visitor.visitVarInsn(Opcodes.ASTORE, variable.index);
-                    break;
-                }
-            }
-            if (!found) {
+            final VariableInfo variable = findVariable(identifier.getValue());
+            if (variable != null) {
+                variable.makeNonFinal(identifier);
+                compileValue(assignment.getValue(), variable.type);
                 method.checkLine(assignment);
-                visitor.visitFieldInsn(Opcodes.GETSTATIC, classNameInternal, GLOBALS, GLOBALS_DESC);
-                visitor.visitLdcInsn(identifier.getValue());
+                if (needResult) {
+                    visitor.visitInsn(variable.type.size == 2 ? Opcodes.DUP2 : Opcodes.DUP);
+                }
+                visitor.visitVarInsn(variable.type.storeOpcode, variable.index);
+                if (needResult) {
+                    box(variable.type);
+                }
+            } else {
                 compileExpression(assignment.getValue());
                 method.checkLine(assignment);
-                visitor.visitMethodInsn(
-                    Opcodes.INVOKESTATIC, g_r_GlangRuntime, "putGlobal",
-                    "(Ljava/util/Map;Ljava/lang/String;Ljava/lang/Object;)Ljava/lang/Object;",
-                    false
-                );
+                if (needResult) {
+                    visitor.visitInsn(Opcodes.DUP);
+                }
+                storeGlobal(identifier.getValue());
             }
         } else if (assignment.getVariable() instanceof AccessExpression access) {
             compileExpression(access.getTarget());
-            method.checkLine(assignment);
-            visitor.visitLdcInsn(access.getMember());
             compileExpression(assignment.getValue());
+            method.checkLine(assignment);
             if (!access.getOperator().isMethodAccess()) {
-                visitor.visitMethodInsn(
-                    Opcodes.INVOKESTATIC, g_r_GlangRuntime, "setField",
-                    "(Ljava/lang/Object;Ljava/lang/String;Ljava/lang/Object;)Ljava/lang/Object;",
-                    false
+                visitor.visitInvokeDynamicInsn(
+                    "setField",
+                    "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;",
+                    SET_FIELD_BOOTSTRAP,
+                    access.getMember()
                 );
             } else {
                 error(access, "Cannot assign to method access");
                 visitor.visitInsn(Opcodes.SWAP);
                 visitor.visitInsn(Opcodes.POP);
-                visitor.visitInsn(Opcodes.SWAP);
-                visitor.visitInsn(Opcodes.POP);
             }
+            popIfUnused(needResult);
         } else {
             error(assignment, "AssignmentExpression to " + assignment.getVariable().getClass().getSimpleName() + " not supported");
             compileExpression(assignment.getValue());
+            popIfUnused(needResult);
+        }
+    }
+
+    private void popIfUnused(boolean needResult) {
+        if (!needResult) {
+            methodStates.get().visitor.visitInsn(Opcodes.POP);
         }
     }
 
+    /**
+     * Compiles {@code condition} to a {@code boolean}. Comparisons are fused with the truthiness check, so they don't
+     * box their result.
+     */
+    private void compileCondition(ExpressionNode condition, ASTNode lineNode) {
+        final MethodState method = methodStates.get();
+        final MethodVisitor visitor = method.visitor;
+        if (condition instanceof BinaryExpression binary && CONDITION_OPERATORS.contains(binary.getOperator())) {
+            final LocalType comparisonType = comparisonType(binary);
+            if (comparisonType != null) {
+                compileComparison(binary, comparisonType, lineNode);
+                return;
+            }
+            compileExpression(binary.getLeft());
+            compileExpression(binary.getRight());
+            method.checkLine(lineNode);
+            visitor.visitInvokeDynamicInsn(
+                "binaryCondition",
+                "(Ljava/lang/Object;Ljava/lang/Object;)Z",
+                arithmeticMode == ArithmeticMode.PROMOTING ? PROMOTING_CONDITION_BOOTSTRAP : BINARY_CONDITION_BOOTSTRAP,
+                BINARY_OPERATORS.get(binary.getOperator())
+            );
+            return;
+        }
+        compileExpression(condition);
+        method.checkLine(lineNode);
+        visitor.visitInvokeDynamicInsn("isTruthy", "(Ljava/lang/Object;)Z", IS_TRUTHY_BOOTSTRAP);
+    }
+
+    /**
+     * Compiles {@code expression} to a value of {@code type}, either boxed or primitive.
+     */
+    private void compileValue(ExpressionNode expression, LocalType type) {
+        if (type.isPrimitive()) {
+            compileTyped(expression, type);
+        } else {
+            compileExpression(expression);
+        }
+    }
+
+    /**
+     * Compiles {@code expression} to an unboxed {@code type}. Only int, long, and double arithmetic is done unboxed,
+     * with the same semantics as {@code OperatorIntrinsics}.
+     */
+    private void compileTyped(ExpressionNode expression, LocalType type) {
+        final MethodState method = methodStates.get();
+        final MethodVisitor visitor = method.visitor;
+        if (typeOf(expression) != type) {
+            // Shouldn't happen, as long as LocalTypeInference agrees with the compiler
+            compileExpression(expression);
+            method.checkLine(expression);
+            visitor.visitTypeInsn(Opcodes.CHECKCAST, type.wrapper);
+            visitor.visitMethodInsn(
+                Opcodes.INVOKEVIRTUAL, type.wrapper, type.name().toLowerCase(Locale.ROOT) + "Value",
+                "()" + type.descriptor, false
+            );
+            return;
+        }
+        if (expression instanceof NumberExpression number) {
+            method.checkLine(expression);
+            switch (type) {
+                case INT -> visitInt(visitor, number.getValue().intValue());
+                case LONG -> {
+                    final long value = number.getValue().longValue();
+                    if (value == 0L || value == 1L) {
+                        visitor.visitInsn(Opcodes.LCONST_0 + (int)value);
+                    } else {
+                        visitor.visitLdcInsn(value);
+                    }
+                }
+                case DOUBLE -> {
+                    final double value = number.getValue().doubleValue();
+                    if (Double.doubleToLongBits(value) == 0L || value == 1.0) {
+                        visitor.visitInsn(Opcodes.DCONST_0 + (int)value);
+                    } else {
+                        visitor.visitLdcInsn(value);
+                    }
+                }
+            }
+        } else if (expression instanceof IdentifierExpression identifier) {
+            final VariableInfo variable = Objects.requireNonNull(findVariable(identifier.getValue()));
+            method.checkLine(expression);
+            visitor.visitVarInsn(variable.type.loadOpcode, variable.index);
+        } else if (expression instanceof BinaryExpression binary) {
+            compileTyped(binary.getLeft(), type);
+            compileTyped(binary.getRight(), type);
+            method.checkLine(expression);
+            switch (binary.getOperator()) {
+                case ADD -> visitor.visitInsn(type.opcode(Opcodes.IADD));
+                case SUBTRACT -> visitor.visitInsn(type.opcode(Opcodes.ISUB));
+                case MULTIPLY -> visitor.visitInsn(type.opcode(Opcodes.IMUL));
+                case DIVIDE -> visitor.visitInsn(type.opcode(Opcodes.IDIV));
+                case MODULO -> visitor.visitMethodInsn(
+                    Opcodes.INVOKESTATIC, "java/lang/Math", "floorMod",
+                    "(" + type.descriptor + type.descriptor + ")" + type.descriptor, false
+                );
+                default -> throw new IllegalStateException("Unexpected primitive operator " + binary.getOperator());
+            }
+        } else {
+            throw new IllegalStateException("Unexpected primitive expression " + expression.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Compiles a comparison between two values of the primitive {@code type} to a {@code boolean}.
+     */
+    private void compileComparison(BinaryExpression binary, LocalType type, ASTNode lineNode) {
+        final MethodState method = methodStates.get();
+        final MethodVisitor visitor = method.visitor;
+        compileTyped(binary.getLeft(), type);
+        compileTyped(binary.getRight(), type);
+        method.checkLine(lineNode);
+        final int jumpIfFalse;
+        switch (type) {
+            case INT -> jumpIfFalse = switch (binary.getOperator()) {
+                case EQ -> Opcodes.IF_ICMPNE;
+                case LT -> Opcodes.IF_ICMPGE;
+                case GT -> Opcodes.IF_ICMPLE;
+                case LE -> Opcodes.IF_ICMPGT;
+                case GE -> Opcodes.IF_ICMPLT;
+                default -> throw new IllegalStateException("Unexpected comparison operator " + binary.getOperator());
+            };
+            case LONG, DOUBLE -> {
+                if (type == LocalType.LONG) {
+                    visitor.visitInsn(Opcodes.LCMP);
+                } else {
+                    // Double.compare, not DCMPx, to match Double.compareTo and Double.equals
+                    visitor.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Double", "compare", "(DD)I", false);
+                }
+                jumpIfFalse = switch (binary.getOperator()) {
+                    case EQ -> Opcodes.IFNE;
+                    case LT -> Opcodes.IFGE;
+                    case GT -> Opcodes.IFLE;
+                    case LE -> Opcodes.IFGT;
+                    case GE -> Opcodes.IFLT;
+                    default -> throw new IllegalStateException("Unexpected comparison operator " + binary.getOperator());
+                };
+            }
+            default -> throw new IllegalStateException("Unexpected comparison type " + type);
+        }
+        final Label isFalse = new Label();
+        final Label end = new Label();
+        visitor.visitJumpInsn(jumpIfFalse, isFalse);
+        visitor.visitInsn(Opcodes.ICONST_1);
+        visitor.visitJumpInsn(Opcodes.GOTO, end);
+        visitor.visitLabel(isFalse);
+        visitor.visitInsn(Opcodes.ICONST_0);
+        visitor.visitLabel(end);
+    }
+
+    private void box(LocalType type) {
+        if (type.isPrimitive()) {
+            methodStates.get().visitor.visitMethodInsn(
+                Opcodes.INVOKESTATIC, type.wrapper, "valueOf", type.boxDescriptor(), false
+            );
+        }
+    }
+
+    // Unboxed arithmetic is part of optimization, so it's skipped along with the rest of it
+    private LocalType typeOf(ExpressionNode expression) {
+        return optimize ? LocalTypeInference.typeOf(expression, this::localType, arithmeticMode) : LocalType.OBJECT;
+    }
+
+    private LocalType comparisonType(BinaryExpression binary) {
+        return optimize ? LocalTypeInference.comparisonType(binary, this::localType, arithmeticMode) : null;
+    }
+
+    private LocalType localType(String name) {
+        final VariableInfo variable = findVariable(name);
+        return variable != null ? variable.type : LocalType.OBJECT;
+    }
+
+    /**
+     * Whether {@code name} currently refers to an import. It may have been reassigned since, which the call site
+     * guards against.
+     */
+    private boolean isImport(String name) {
+        final VariableInfo variable = findVariable(name);
+        return variable != null ? variable.isImport : importedGlobals.contains(name);
+    }
+
+    private VariableInfo findVariable(String name) {
+        for (final ScopeState scope : (Iterable<ScopeState>)scopeStates.stack::descendingIterator) {
+            final VariableInfo variable = scope.variables.get(name);
+            if (variable != null) {
+                return variable;
+            }
+        }
+        return null;
+    }
+
     private void compileAccess(AccessExpression access, AccessExpression.Operator operator) {
         final MethodState method = methodStates.get();
         final MethodVisitor visitor = method.visitor;
         method.checkLine(access);
-        visitor.visitLdcInsn(access.getMember());
         switch (operator) {
             // Simple and direct are the same for now, until property getters and setters
-            case SIMPLE, DIRECT -> visitor.visitMethodInsn(
-                Opcodes.INVOKESTATIC, g_r_GlangRuntime, "getField",
-                "(Ljava/lang/Object;Ljava/lang/String;)Ljava/lang/Object;",
-                false
+            case SIMPLE, DIRECT -> visitor.visitInvokeDynamicInsn(
+                "getField",
+                "(Ljava/lang/Object;)Ljava/lang/Object;",
+                GET_FIELD_BOOTSTRAP,
+                access.getMember()
             );
-            case METHOD -> visitor.visitMethodInsn(
-                Opcodes.INVOKESTATIC, g_r_GlangRuntime, "getInstanceMethod",
-                "(Ljava/lang/Object;Ljava/lang/String;)Lglang/runtime/lookup/MethodLookup;",
-                false
-            );
-            case DIRECT_METHOD -> visitor.visitMethodInsn(
-                Opcodes.INVOKESTATIC, g_r_GlangRuntime, "getDirectMethod",
-                "(Ljava/lang/Object;Ljava/lang/String;)Lglang/runtime/lookup/MethodLookup;",
-                false
-            );
-            default -> {
-                error(access, "AccessExpression " + operator + " not supported");
-                method.checkLine(access);
-                visitor.visitInsn(Opcodes.POP);
+            case METHOD -> {
+                visitor.visitLdcInsn(access.getMember());
+                visitor.visitMethodInsn(
+                    Opcodes.INVOKESTATIC, g_r_GlangRuntime, "getInstanceMethod",
+                    "(Ljava/lang/Object;Ljava/lang/String;)Lglang/runtime/lookup/MethodLookup;",
+                    false
+                );
             }
+            case DIRECT_METHOD -> {
+                visitor.visitLdcInsn(access.getMember());
+                visitor.visitMethodInsn(
+                    Opcodes.INVOKESTATIC, g_r_GlangRuntime, "getDirectMethod",
+                    "(Ljava/lang/Object;Ljava/lang/String;)Lglang/runtime/lookup/MethodLookup;",
+                    false
+                );
+            }
+            default -> error(access, "AccessExpression " + operator + " not supported");
         }
     }
 
@@ -651,19 +970,14 @@ public class GlangCompiler {
                         error(identifier, "Cannot access scopes from other methods currently");
                     }
                     method.checkLine(literal);
-                    visitor.visitVarInsn(Opcodes.ALOAD, variable.index);
+                    visitor.visitVarInsn(variable.type.loadOpcode, variable.index);
+                    box(variable.type);
                     break;
                 }
             }
             if (!found) {
                 method.checkLine(literal);
-                visitor.visitFieldInsn(Opcodes.GETSTATIC, classNameInternal, GLOBALS, GLOBALS_DESC);
-                visitor.visitLdcInsn(identifier.getValue());
-                visitor.visitMethodInsn(
-                    Opcodes.INVOKESTATIC, g_r_GlangRuntime, "getGlobal",
-                    "(Ljava/util/Map;Ljava/lang/String;)Ljava/lang/Object;",
-                    false
-                );
+                loadGlobal(identifier.getValue());
             }
         } else if (literal instanceof NullExpression) {
             method.checkLine(literal);
@@ -675,6 +989,104 @@ public class GlangCompiler {
         }
     }
 
+    private void loadGlobal(String name) {
+        final MethodVisitor visitor = methodStates.get().visitor;
+        final Integer slot = globalSlots.get(name);
+        if (slot == null) {
+            visitor.visitFieldInsn(Opcodes.GETSTATIC, classNameInternal, GLOBALS, GLOBALS_DESC);
+            visitor.visitInvokeDynamicInsn(
+                "getGlobal",
+                "(Ljava/util/Map;)Ljava/lang/Object;",
+                GET_GLOBAL_BOOTSTRAP,
+                name
+            );
+            return;
+        }
+        final Label found = new Label();
+        visitor.visitFieldInsn(Opcodes.GETSTATIC, classNameInternal, SLOTS, SLOTS_DESC);
+        visitInt(visitor, slot);
+        visitor.visitInsn(Opcodes.AALOAD);
+        visitor.visitInsn(Opcodes.DUP);
+        visitor.visitFieldInsn(Opcodes.GETSTATIC, g_r_GlobalsMap, "UNSET", j_l_Object_DESC);
+        visitor.visitJumpInsn(Opcodes.IF_ACMPNE, found);
+        visitor.visitInsn(Opcodes.POP);
+        visitor.visitFieldInsn(Opcodes.GETSTATIC, classNameInternal, GLOBALS, GLOBALS_DESC);
+        visitor.visitLdcInsn(name);
+        visitor.visitMethodInsn(
+            Opcodes.INVOKESTATIC, g_r_GlangRuntime, "getGlobal",
+            "(Ljava/util/Map;Ljava/lang/String;)Ljava/lang/Object;",
+            false
+        );
+        visitor.visitLabel(found);
+    }
+
+    // Consumes the value on top of the stack
+    private void storeGlobal(String name) {
+        final MethodVisitor visitor = methodStates.get().visitor;
+        final Integer slot = globalSlots.get(name);
+        if (slot == null) {
+            visitor.visitFieldInsn(Opcodes.GETSTATIC, classNameInternal, GLOBALS, GLOBALS_DESC);
+            visitor.visitInsn(Opcodes.SWAP);
+            visitor.visitLdcInsn(name);
+            visitor.visitInsn(Opcodes.SWAP);
+            visitor.visitMethodInsn(
+                Opcodes.INVOKEINTERFACE, "java/util/Map", "put",
+                "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;",
+                true
+            );
+            visitor.visitInsn(Opcodes.POP);
+            return;
+        }
+        visitor.visitFieldInsn(Opcodes.GETSTATIC, classNameInternal, SLOTS, SLOTS_DESC);
+        visitor.visitInsn(Opcodes.SWAP);
+        visitInt(visitor, slot);
+        visitor.visitInsn(Opcodes.SWAP);
+        visitor.visitInsn(Opcodes.AASTORE);
+    }
+
+    /**
+     * Finds every name that may be written to the globals, so that each can get a slot. This may include names that
+     * end up being locals, which just leaves those slots unused.
+     */
+    private void collectGlobals(ASTNode node, boolean topLevel) {
+        if (node == null) return;
+        if (node instanceof StatementList list) {
+            list.getStatements().forEach(statement -> collectGlobals(statement, topLevel));
+        } else if (node instanceof ExpressionStatement statement) {
+            collectGlobals(statement.getExpression(), false);
+        } else if (node instanceof BlockStatement block) {
+            collectGlobals(block.getStatements(), false);
+        } else if (node instanceof VariableDeclaration decl) {
+            collectGlobals(decl.getInitializer(), false);
+        } else if (node instanceof IfOrWhileStatement ifOrWhile) {
+            collectGlobals(ifOrWhile.getCondition(), false);
+            collectGlobals(ifOrWhile.getBody(), false);
+            collectGlobals(ifOrWhile.getElseBody(), false);
+        } else if (node instanceof ImportStatement importStatement) {
+            if (topLevel && importStatement.getTarget() != null) {
+                globalSlots.putIfAbsent(importStatement.getTarget(), globalSlots.size());
+                importedGlobals.add(importStatement.getTarget());
+            }
+        } else if (node instanceof AssignmentExpression assignment) {
+            if (assignment.getVariable() instanceof IdentifierExpression identifier) {
+                globalSlots.putIfAbsent(identifier.getValue(), globalSlots.size());
+            } else {
+                collectGlobals(assignment.getVariable(), false);
+            }
+            collectGlobals(assignment.getValue(), false);
+        } else if (node instanceof CallExpression call) {
+            collectGlobals(call.getTarget(), false);
+            call.getArgs().forEach(arg -> collectGlobals(arg, false));
+        } else if (node instanceof AccessExpression access) {
+            collectGlobals(access.getTarget(), false);
+        } else if (node instanceof UnaryExpression unary) {
+            collectGlobals(unary.getOperand(), false);
+        } else if (node instanceof BinaryExpression binary) {
+            collectGlobals(binary.getLeft(), false);
+            collectGlobals(binary.getRight(), false);
+        }
+    }
+
     private void compileNumber(Number num, ASTNode node) {
         final MethodState method = methodStates.get();
         final MethodVisitor visitor = method.visitor;
@@ -828,6 +1240,12 @@ public class GlangCompiler {
             this.name = name;
         }
 
+        VariableInfo newVariable(LocalType type) {
+            final VariableInfo variable = new VariableInfo(currentLocal, type);
+            currentLocal += type.size;
+            return variable;
+        }
+
         void checkLine(ASTNode node) {
             final int line = node.getStartLocation().line();
             if (line != currentLine) {
@@ -853,11 +1271,11 @@ public class GlangCompiler {
 
         @Override
         public void end() {
-            owner.currentLocal -= variables.size();
             owner.visitor.visitLabel(endLabel);
             for (final var entry : variables.entrySet()) {
+                owner.currentLocal -= entry.getValue().type.size;
                 owner.visitor.visitLocalVariable(
-                    entry.getKey(), j_l_Object_DESC, null,
+                    entry.getKey(), entry.getValue().type.descriptor, null,
                     entry.getValue().startLabel, endLabel,
                     entry.getValue().index
                 );
@@ -877,14 +1295,17 @@ public class GlangCompiler {
 
     private class VariableInfo {
         final int index;
+        final LocalType type;
         final Label startLabel = new Label();
         boolean isArg = false;
+        boolean isImport = false;
         boolean isEffectivelyFinal = true;
         boolean isForceFinal = false;
         boolean isCaptured = false;
 
-        VariableInfo(int index) {
+        VariableInfo(int index, LocalType type) {
             this.index = index;
+            this.type = type;
         }
 
         void makeNonFinal(ASTNode node) {
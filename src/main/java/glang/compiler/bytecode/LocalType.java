@@ -0,0 +1,60 @@
+package glang.compiler.bytecode;
+
+import org.objectweb.asm.Opcodes;
+
+/**
+ * How a local variable is stored. Primitive locals are boxed whenever they're used as an {@code Object}.
+ */
+enum LocalType {
+    OBJECT("Ljava/lang/Object;", Opcodes.ALOAD, Opcodes.ASTORE, 1, null),
+    INT("I", Opcodes.ILOAD, Opcodes.ISTORE, 1, "java/lang/Integer"),
+    LONG("J", Opcodes.LLOAD, Opcodes.LSTORE, 2, "java/lang/Long"),
+    DOUBLE("D", Opcodes.DLOAD, Opcodes.DSTORE, 2, "java/lang/Double");
+
+    final String descriptor;
+    final int loadOpcode;
+    final int storeOpcode;
+    final int size;
+    final String wrapper;
+
+    LocalType(String descriptor, int loadOpcode, int storeOpcode, int size, String wrapper) {
+        this.descriptor = descriptor;
+        this.loadOpcode = loadOpcode;
+        this.storeOpcode = storeOpcode;
+        this.size = size;
+        this.wrapper = wrapper;
+    }
+
+    boolean isPrimitive() {
+        return this != OBJECT;
+    }
+
+    /**
+     * @param opcode The {@code int} version of the opcode, such as {@link Opcodes#IADD}
+     */
+    int opcode(int opcode) {
+        return switch (this) {
+            case INT -> opcode;
+            case LONG -> opcode + 1;
+            case DOUBLE -> opcode + 3;
+            case OBJECT -> throw new IllegalStateException("No arithmetic opcodes for Object");
+        };
+    }
+
+    String boxDescriptor() {
+        return "(" + descriptor + ")L" + wrapper + ";";
+    }
+
+    static LocalType of(Number value) {
+        if (value instanceof Integer) {
+            return INT;
+        }
+        if (value instanceof Long) {
+            return LONG;
+        }
+        if (value instanceof Double) {
+            return DOUBLE;
+        }
+        return OBJECT;
+    }
+}
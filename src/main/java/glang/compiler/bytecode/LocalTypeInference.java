@@ -0,0 +1,227 @@
+package glang.compiler.bytecode;
+
+import glang.compiler.ArithmeticMode;
+import glang.compiler.tree.ASTNode;
+import glang.compiler.tree.StatementList;
+import glang.compiler.tree.expression.*;
+import glang.compiler.tree.statement.*;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Finds the locals that only ever hold one kind of primitive, so {@link GlangCompiler} can keep them unboxed. A
+ * local's type is the join of its initializer and everything assigned to it, which is iterated to a fixpoint since
+ * locals can be assigned from each other. Scoping matches {@link GlangCompiler}'s exactly.
+ * <p>
+ * Primitive arithmetic is only inferred where {@code OperatorIntrinsics} would be used at runtime, so the result is
+ * always the same as the boxed version. With {@link ArithmeticMode#PROMOTING}, {@code int} and {@code long} arithmetic
+ * may overflow into a wider type, so only {@code double} arithmetic is done unboxed.
+ */
+final class LocalTypeInference {
+    private static final Set<BinaryExpression.Operator> ARITHMETIC_OPERATORS = EnumSet.of(
+        BinaryExpression.Operator.ADD,
+        BinaryExpression.Operator.SUBTRACT,
+        BinaryExpression.Operator.MULTIPLY,
+        BinaryExpression.Operator.DIVIDE,
+        BinaryExpression.Operator.MODULO
+    );
+    static final Set<BinaryExpression.Operator> COMPARISON_OPERATORS = EnumSet.of(
+        BinaryExpression.Operator.EQ,
+        BinaryExpression.Operator.LT,
+        BinaryExpression.Operator.GT,
+        BinaryExpression.Operator.LE,
+        BinaryExpression.Operator.GE
+    );
+
+    private final ArithmeticMode arithmeticMode;
+    private final Map<VariableDeclaration, Local> declarations = new IdentityHashMap<>();
+    private final Deque<Map<String, Local>> scopes = new ArrayDeque<>();
+    private boolean changed;
+
+    private LocalTypeInference(ArithmeticMode arithmeticMode) {
+        this.arithmeticMode = arithmeticMode;
+    }
+
+    /**
+     * @param rootLocals The locals that are already in scope at the root, such as {@code args}
+     */
+    static Map<VariableDeclaration, LocalType> infer(
+        StatementList code, Set<String> rootLocals, ArithmeticMode arithmeticMode
+    ) {
+        final LocalTypeInference inference = new LocalTypeInference(arithmeticMode);
+        do {
+            do {
+                inference.changed = false;
+                final Map<String, Local> root = new HashMap<>();
+                for (final String name : rootLocals) {
+                    root.put(name, new Local(LocalType.OBJECT));
+                }
+                inference.scopes.push(root);
+                inference.visit(code);
+                inference.scopes.pop();
+            } while (inference.changed);
+            // Locals that only depend on themselves (e.g. var a = a) never get a type. Anything that was inferred
+            // from them was optimistic, so iterate again once they're boxed.
+            for (final Local local : inference.declarations.values()) {
+                if (local.type == null) {
+                    local.type = LocalType.OBJECT;
+                    inference.changed = true;
+                }
+            }
+        } while (inference.changed);
+
+        final Map<VariableDeclaration, LocalType> result = new IdentityHashMap<>();
+        inference.declarations.forEach((decl, local) -> result.put(decl, local.type));
+        return result;
+    }
+
+    /**
+     * The type {@code expression} evaluates to, where only {@link LocalType#OBJECT} means it's boxed.
+     *
+     * @param locals Looks up the type of a local, or returns {@link LocalType#OBJECT} if it's not a local. During
+     *               inference, this may return {@code null} for locals that don't have a type yet.
+     */
+    static LocalType typeOf(
+        ExpressionNode expression, Function<String, LocalType> locals, ArithmeticMode arithmeticMode
+    ) {
+        if (expression instanceof NumberExpression number) {
+            return LocalType.of(number.getValue());
+        }
+        if (expression instanceof IdentifierExpression identifier) {
+            return locals.apply(identifier.getValue());
+        }
+        if (expression instanceof BinaryExpression binary && ARITHMETIC_OPERATORS.contains(binary.getOperator())) {
+            final LocalType left = typeOf(binary.getLeft(), locals, arithmeticMode);
+            final LocalType right = typeOf(binary.getRight(), locals, arithmeticMode);
+            if (left == LocalType.OBJECT || right == LocalType.OBJECT) {
+                return LocalType.OBJECT;
+            }
+            if (left == null || right == null) {
+                return left != null ? left : right;
+            }
+            if (left != right) {
+                return LocalType.OBJECT;
+            }
+            if (left == LocalType.DOUBLE && binary.getOperator() == BinaryExpression.Operator.MODULO) {
+                return LocalType.OBJECT; // No modulo for double
+            }
+            if (left != LocalType.DOUBLE && arithmeticMode == ArithmeticMode.PROMOTING) {
+                return LocalType.OBJECT;
+            }
+            return left;
+        }
+        return LocalType.OBJECT;
+    }
+
+    /**
+     * @return The primitive type both sides of a comparison have, or {@code null} if it needs to be done boxed
+     */
+    static LocalType comparisonType(
+        BinaryExpression binary, Function<String, LocalType> locals, ArithmeticMode arithmeticMode
+    ) {
+        if (!COMPARISON_OPERATORS.contains(binary.getOperator())) {
+            return null;
+        }
+        final LocalType left = typeOf(binary.getLeft(), locals, arithmeticMode);
+        if (left == null || !left.isPrimitive() || left != typeOf(binary.getRight(), locals, arithmeticMode)) {
+            return null;
+        }
+        return left;
+    }
+
+    private void visit(ASTNode node) {
+        if (node == null) return;
+        if (node instanceof StatementList list) {
+            list.getStatements().forEach(this::visit);
+        } else if (node instanceof ExpressionStatement statement) {
+            visit(statement.getExpression());
+        } else if (node instanceof BlockStatement block) {
+            scopes.push(new HashMap<>());
+            visit(block.getStatements());
+            scopes.pop();
+        } else if (node instanceof VariableDeclaration decl) {
+            final Local local = declarations.computeIfAbsent(decl, k -> new Local(null));
+            // Duplicates are a compile error, and the compiler keeps the first one
+            scopes.peek().putIfAbsent(decl.getName(), local);
+            // The local is in scope in its own initializer, but isn't assigned yet, so it can't be primitive
+            local.initializing = true;
+            visit(decl.getInitializer());
+            final LocalType type = decl.getInitializer() != null
+                ? typeOf(decl.getInitializer(), this::lookup, arithmeticMode)
+                : LocalType.OBJECT;
+            local.initializing = false;
+            join(local, type);
+        } else if (node instanceof IfOrWhileStatement ifOrWhile) {
+            visit(ifOrWhile.getCondition());
+            visit(ifOrWhile.getBody());
+            visit(ifOrWhile.getElseBody());
+        } else if (node instanceof ImportStatement importStatement) {
+            if (importStatement.getTarget() != null && scopes.size() > 1) {
+                // Importing onto a local in the same scope stores the imported object into its slot
+                final Local existing = scopes.peek().get(importStatement.getTarget());
+                if (existing != null) {
+                    join(existing, LocalType.OBJECT);
+                } else {
+                    scopes.peek().put(importStatement.getTarget(), new Local(LocalType.OBJECT));
+                }
+            }
+        } else if (node instanceof AssignmentExpression assignment) {
+            visit(assignment.getValue());
+            if (assignment.getVariable() instanceof IdentifierExpression identifier) {
+                final Local local = find(identifier.getValue());
+                if (local != null) {
+                    join(local, typeOf(assignment.getValue(), this::lookup, arithmeticMode));
+                }
+            } else {
+                visit(assignment.getVariable());
+            }
+        } else if (node instanceof CallExpression call) {
+            visit(call.getTarget());
+            call.getArgs().forEach(this::visit);
+        } else if (node instanceof AccessExpression access) {
+            visit(access.getTarget());
+        } else if (node instanceof UnaryExpression unary) {
+            visit(unary.getOperand());
+        } else if (node instanceof BinaryExpression binary) {
+            visit(binary.getLeft());
+            visit(binary.getRight());
+        }
+    }
+
+    private void join(Local local, LocalType type) {
+        if (type == null || local.type == type || local.type == LocalType.OBJECT) return;
+        local.type = local.type == null ? type : LocalType.OBJECT;
+        changed = true;
+    }
+
+    private Local find(String name) {
+        for (final Map<String, Local> scope : scopes) {
+            final Local local = scope.get(name);
+            if (local != null) {
+                return local;
+            }
+        }
+        return null;
+    }
+
+    private LocalType lookup(String name) {
+        final Local local = find(name);
+        if (local == null) {
+            return LocalType.OBJECT;
+        }
+        if (local.initializing) {
+            join(local, LocalType.OBJECT);
+        }
+        return local.type;
+    }
+
+    private static final class Local {
+        LocalType type;
+        boolean initializing;
+
+        Local(LocalType type) {
+            this.type = type;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package glang.compiler.error;
 import glang.compiler.SourceLocation;
 import glang.util.GlangStringUtils;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -21,6 +23,23 @@ public class ErrorCollector {
         this(i -> GlangStringUtils.getLine(source, i));
     }
 
+    /**
+     * @param source The UTF-8 encoded source. It's only decoded when there's an error, and then only once.
+     */
+    public ErrorCollector(ByteBuffer source) {
+        this(decodingLineGetter(source));
+    }
+
+    private static IntFunction<String> decodingLineGetter(ByteBuffer source) {
+        final String[] decoded = new String[1];
+        return i -> {
+            if (decoded[0] == null) {
+                decoded[0] = StandardCharsets.UTF_8.decode(source.duplicate()).toString();
+            }
+            return GlangStringUtils.getLine(decoded[0], i);
+        };
+    }
+
     public List<CompileError> getErrors() {
         return Collections.unmodifiableList(errors);
     }
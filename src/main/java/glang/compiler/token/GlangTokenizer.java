@@ -2,59 +2,103 @@ package glang.compiler.token;
 
 import glang.compiler.SourceLocation;
 import glang.compiler.util.SymbolMap;
-import glang.util.GlangStringUtils;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.math.BigInteger;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
-import java.util.function.BiFunction;
 
+/**
+ * Splits glang source into tokens. The source is read in chunks, and only the current line is kept around, so a
+ * tokenizer can be fed a large {@link Reader} or memory-mapped file without the whole source ever existing as chars.
+ * Each tokenizer reads its source once.
+ */
 public final class GlangTokenizer {
     private static final char EOF = '\0';
+    private static final int CHUNK_SIZE = 8192;
 
-    private final char[] source;
-    private String sourceString;
+    private final Readable input;
+    private final StringBuilder tokenBuilder = new StringBuilder();
 
-    private int index, line, column;
+    // The chars read from input that are still needed. This is always at least the current line, for rewinding and
+    // error messages, and buffer[0] is at bufferOffset in the source.
+    private char[] buffer = new char[CHUNK_SIZE];
+    private int bufferOffset, bufferLength;
+    private boolean inputEnded;
+
+    private int index, lineStart, line = 1, column; // column 0 means next() has never been called
     private boolean wasNewLine, advancedPastEof;
 
-    public GlangTokenizer(String source) {
-        this.source = source.toCharArray();
-        this.sourceString = source;
+    public GlangTokenizer(CharSequence source) {
+        this.input = CharBuffer.wrap(source);
     }
 
+    /**
+     * @apiNote {@code source} isn't copied, so it mustn't be modified until the tokenizer is done with it.
+     */
     public GlangTokenizer(char[] source) {
-        this.source = Arrays.copyOf(source, source.length);
+        this.input = CharBuffer.wrap(source);
+    }
+
+    public GlangTokenizer(Reader source) {
+        this.input = source;
+    }
+
+    /**
+     * @param source UTF-8 encoded source, such as a memory-mapped file. It's decoded as it's read, and its position
+     * isn't changed.
+     */
+    public GlangTokenizer(ByteBuffer source) {
+        this.input = new Utf8Input(source.duplicate());
     }
 
     public static List<Token> tokenize(String source) throws TokenizeFailure {
         return new GlangTokenizer(source).tokenize();
     }
 
-    public String getSource() {
-        if (sourceString == null) {
-            sourceString = new String(source);
-        }
-        return sourceString;
+    public static TokenBuffer tokenizeToBuffer(String source) throws TokenizeFailure {
+        return new GlangTokenizer(source).tokenizeToBuffer();
     }
 
     public List<Token> tokenize() throws TokenizeFailure {
-        reset();
-        final List<Token> result = new ArrayList<>();
-        final StringBuilder tokenBuilder = new StringBuilder();
+        return tokenizeToBuffer().toList();
+    }
+
+    public TokenBuffer tokenizeToBuffer() throws TokenizeFailure {
+        final TokenBuffer result = new TokenBuffer();
+        while (nextToken(result)) {
+            // Keep going
+        }
+        return result.trim();
+    }
+
+    /**
+     * Reads the next token into {@code result}.
+     *
+     * @return {@code false} if the end of the source was reached instead
+     * @throws UncheckedIOException If reading from a {@link Reader} failed
+     */
+    public boolean nextToken(TokenBuffer result) throws TokenizeFailure {
         char c;
         while ((c = next()) != EOF) {
             if (Character.isWhitespace(c)) continue;
             switch (c) {
                 case '"':
                 case '\'':
-                    handleString(result, tokenBuilder, c, Token.Str::new);
-                    continue;
+                    handleString(result, tokenBuilder, c, TokenType.STRING);
+                    return true;
                 case '`':
-                    handleString(result, tokenBuilder, '`', Token.Identifier::new);
-                    continue;
+                    handleString(result, tokenBuilder, '`', TokenType.IDENTIFIER);
+                    return true;
                 case '0':
                 case '1':
                 case '2':
@@ -66,12 +110,12 @@ public final class GlangTokenizer {
                 case '8':
                 case '9':
                     handleNumber(result, tokenBuilder, c);
-                    continue;
+                    return true;
                 case '.': {
                     final char peeked = peek();
                     if (peeked >= '0' && peeked <= '9') {
                         handleNumber(result, tokenBuilder, c);
-                        continue;
+                        return true;
                     }
                     break;
                 }
@@ -86,19 +130,24 @@ public final class GlangTokenizer {
                     }
                     if (peeked == '*') {
                         next();
-                        final int startIndex = index;
                         final int startLine = line;
                         final int startColumn = column;
+                        // The line the comment started on is only kept until the comment leaves it
+                        String startLineText = null;
                         while (true) {
                             peeked = next();
                             if (peeked == '*' && peek() == '/') {
                                 next();
                                 break;
+                            } else if (peeked == '\n' && startLineText == null) {
+                                startLineText = currentLine();
                             } else if (peeked == EOF) {
-                                index = startIndex;
+                                if (startLineText == null) {
+                                    startLineText = currentLine();
+                                }
                                 line = startLine;
                                 column = startColumn;
-                                throw error("Unterminated /*", 2);
+                                throw error("Unterminated /*", 2, startLineText);
                             }
                         }
                         continue;
@@ -107,14 +156,15 @@ public final class GlangTokenizer {
             }
             if (Character.isJavaIdentifierStart(c)) {
                 handleIdentifier(result, tokenBuilder, c);
-                continue;
+                return true;
             }
             handleSimple(result, tokenBuilder, c);
+            return true;
         }
-        return List.copyOf(result);
+        return false;
     }
 
-    private void handleIdentifier(List<Token> result, StringBuilder tokenBuilder, char firstChar) {
+    private void handleIdentifier(TokenBuffer result, StringBuilder tokenBuilder, char firstChar) {
         tokenBuilder.setLength(0);
         tokenBuilder.append(firstChar);
         while (peek() != EOF && Character.isJavaIdentifierPart(peek())) {
@@ -123,38 +173,43 @@ public final class GlangTokenizer {
         final String token = tokenBuilder.toString();
         final TokenType keyword = TokenType.KEYWORDS.get(token);
         if (keyword != null) {
-            result.add(new Token.Basic(keyword, getSourceLocation(token.length())));
+            addToken(result, keyword, null, token.length());
             return;
         }
-        result.add(new Token.Identifier(token, getSourceLocation(token.length())));
+        addToken(result, TokenType.IDENTIFIER, token, token.length());
     }
 
-    // NOTE: This has an issue where if ab and abcd are valid, but abc isn't, abcab will cause an error instead of
-    // becoming [ab, c, ab]. However, no existing tokens match have this interaction, so this is fine for now.
-    private void handleSimple(List<Token> result, StringBuilder tokenBuilder, char firstChar) throws TokenizeFailure {
+    // Longest match: the trie is walked as far as the source allows, and the token is the longest prefix along the
+    // way that's a token. The rest is left for the next token, so if ab and abcd are tokens, abcab is [ab, c, ab].
+    private void handleSimple(TokenBuffer result, StringBuilder tokenBuilder, char firstChar) throws TokenizeFailure {
         tokenBuilder.setLength(0);
         SymbolMap<TokenType> symbolMap = TokenType.SIMPLE_TOKENS.getNext(firstChar);
         if (symbolMap == null) {
             throw error("Unknown token '" + firstChar + "'");
         }
         tokenBuilder.append(firstChar);
+        TokenType matched = symbolMap.getValue();
+        int matchedLength = 1;
         while (true) {
             final char peeked = peek(tokenBuilder.length() - 1);
-            final SymbolMap<TokenType> next = symbolMap.getNext(peeked);
-            if (next == null) break;
-            symbolMap = next;
+            symbolMap = symbolMap.getNext(peeked);
+            if (symbolMap == null) break;
             tokenBuilder.append(peeked);
+            if (symbolMap.getValue() != null) {
+                matched = symbolMap.getValue();
+                matchedLength = tokenBuilder.length();
+            }
         }
-        skipFast(tokenBuilder.length() - 1);
-        if (symbolMap.getValue() == null) {
+        if (matched == null) {
+            skipFast(tokenBuilder.length() - 1);
             throw error("Unknown token '" + tokenBuilder + "'", tokenBuilder.length());
         }
-        result.add(new Token.Basic(symbolMap.getValue(), getSourceLocation(tokenBuilder.length())));
+        skipFast(matchedLength - 1);
+        addToken(result, matched, null, matchedLength);
     }
 
     private void handleString(
-        List<Token> result, StringBuilder tokenBuilder, char terminator,
-        BiFunction<String, SourceLocation, Token> tokenType
+        TokenBuffer result, StringBuilder tokenBuilder, char terminator, TokenType tokenType
     ) throws TokenizeFailure {
         tokenBuilder.setLength(0);
         final int startColumn = column;
@@ -211,13 +266,13 @@ public final class GlangTokenizer {
             }
             tokenBuilder.append(c);
         }
-        result.add(tokenType.apply(tokenBuilder.toString(), getSourceLocation(column - startColumn + 1)));
+        addToken(result, tokenType, tokenBuilder.toString(), column - startColumn + 1);
     }
 
-    private void handleNumber(List<Token> result, StringBuilder tokenBuilder, char firstChar) throws TokenizeFailure {
+    private void handleNumber(TokenBuffer result, StringBuilder tokenBuilder, char firstChar) throws TokenizeFailure {
         tokenBuilder.setLength(0);
         tokenBuilder.append(firstChar);
-        final int start = index;
+        final int start = bufferOffset + index; // The buffer may be compacted while reading, but it keeps the line
 
         int radix = 10;
         int radixSkip = 0;
@@ -270,7 +325,7 @@ public final class GlangTokenizer {
             }
             break;
         }
-        tokenBuilder.append(source, start, index - start);
+        tokenBuilder.append(buffer, start - bufferOffset, bufferOffset + index - start);
 
         final String token = tokenBuilder.substring(radixSkip);
         if (token.isEmpty()) {
@@ -328,7 +383,12 @@ public final class GlangTokenizer {
             }
         };
 
-        result.add(new Token.Num(number, getSourceLocation(tokenBuilder.length())));
+        addToken(result, TokenType.NUMBER, number, tokenBuilder.length());
+    }
+
+    // Like getSourceLocation(length), the token is taken to end at the last char read
+    private void addToken(TokenBuffer result, TokenType type, Object value, int length) {
+        result.add(type, value, bufferOffset + index - length, line, column - length + 1, length);
     }
 
     private TokenizeFailure error(String reason) {
@@ -336,10 +396,11 @@ public final class GlangTokenizer {
     }
 
     private TokenizeFailure error(String reason, int length) {
-        return new TokenizeFailure(
-            reason, getSourceLocation(length),
-            GlangStringUtils.getLine(getSource(), line - 1)
-        );
+        return error(reason, length, currentLine());
+    }
+
+    private TokenizeFailure error(String reason, int length, String lineText) {
+        return new TokenizeFailure(reason, getSourceLocation(length), lineText);
     }
 
     private SourceLocation getSourceLocation() {
@@ -350,33 +411,40 @@ public final class GlangTokenizer {
         return new SourceLocation(line, column - length + 1, length);
     }
 
-    private void reset() {
-        index = 0;
-        line = 1;
-        column = 0; // 0 means next() has never been called
-        wasNewLine = false;
+    /**
+     * The text of the line containing the last char read, without its line terminator. The rest of the line is read
+     * if needed, so this should only be used for errors.
+     */
+    private String currentLine() {
+        int ahead = 0; // Relative to index, since filling can move it
+        if (wasNewLine) {
+            ahead = -1;
+        } else {
+            while (index + ahead < bufferLength || fill(ahead + 1)) {
+                if (buffer[index + ahead] == '\n') break;
+                ahead++;
+            }
+        }
+        int end = index + ahead;
+        if (end > lineStart && buffer[end - 1] == '\r') {
+            end--;
+        }
+        return new String(buffer, lineStart, end - lineStart);
     }
 
     private char peek() {
-        return index < source.length ? source[index] : EOF;
+        return index < bufferLength || fill(1) ? buffer[index] : EOF;
     }
 
     private char peek(int offset) {
         if (offset < 0) {
             throw new IllegalArgumentException("Cannot peek backwards. Use peekLast().");
         }
-        return index + offset < source.length ? source[index + offset] : EOF;
-    }
-
-    private char last() {
-        if (index == 0) {
-            throw new IllegalStateException("Cannot peekLast() at index 0");
-        }
-        return source[index - 1];
+        return index + offset < bufferLength || fill(offset + 1) ? buffer[index + offset] : EOF;
     }
 
     private char next() {
-        if (index >= source.length) {
+        if (index >= bufferLength && !fill(1)) {
             if (!advancedPastEof) {
                 column++;
                 advancedPastEof = true;
@@ -386,9 +454,10 @@ public final class GlangTokenizer {
         if (wasNewLine) {
             line++;
             column = 0;
+            lineStart = index;
             wasNewLine = false;
         }
-        final char c = source[index++];
+        final char c = buffer[index++];
         if (c == '\n') {
             wasNewLine = true;
         }
@@ -400,11 +469,6 @@ public final class GlangTokenizer {
         if (n < 0) {
             throw new IllegalArgumentException("Cannot rewind negative distance. Use skip().");
         }
-        if (n > index) {
-            throw new IllegalStateException(
-                "Cannot rewind " + n + " chars, as that would be before the start of the source"
-            );
-        }
         if (n > column) {
             throw new IllegalStateException(
                 "Cannot rewind " + n + " chars, as that would be before the start of the current line"
@@ -428,10 +492,76 @@ public final class GlangTokenizer {
         if (n < 0) {
             throw new IllegalArgumentException("Cannot skip negative distance. Use rewind().");
         }
-        if (index + n > source.length) {
+        if (index + n > bufferLength && !fill(n)) {
             throw new IllegalArgumentException("Cannot skipFast past the end of the source.");
         }
         index += n;
         column += n;
     }
+
+    /**
+     * Reads from the input until at least {@code count} chars after {@code index} are in the buffer. Everything
+     * before the current line is dropped to make room, so indices into the buffer shift.
+     *
+     * @return {@code false} if the input ended first
+     */
+    private boolean fill(int count) {
+        while (bufferLength - index < count) {
+            if (inputEnded) {
+                return false;
+            }
+            if (bufferLength == buffer.length) {
+                if (lineStart > 0) {
+                    System.arraycopy(buffer, lineStart, buffer, 0, bufferLength - lineStart);
+                    bufferOffset += lineStart;
+                    bufferLength -= lineStart;
+                    index -= lineStart;
+                    lineStart = 0;
+                } else {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+            }
+            final int read;
+            try {
+                read = input.read(CharBuffer.wrap(buffer, bufferLength, buffer.length - bufferLength));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (read < 0) {
+                inputEnded = true;
+            } else {
+                bufferLength += read;
+            }
+        }
+        return true;
+    }
+
+    private static final class Utf8Input implements Readable {
+        private final ByteBuffer source;
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private boolean decoded, flushed;
+
+        Utf8Input(ByteBuffer source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read(CharBuffer cb) {
+            if (flushed) {
+                return -1;
+            }
+            final int start = cb.position();
+            if (!decoded) {
+                decoded = decoder.decode(source, cb, true).isUnderflow();
+            }
+            if (decoded) {
+                final CoderResult result = decoder.flush(cb);
+                flushed = result.isUnderflow();
+            }
+            final int read = cb.position() - start;
+            return read == 0 && flushed ? -1 : read;
+        }
+    }
 }
@@ -0,0 +1,243 @@
+package glang.compiler.token;
+
+import glang.compiler.SourceLocation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A packed list of tokens. Each token is a row across parallel {@code int} arrays, and the values of identifier,
+ * string, and number tokens are kept once each in a side table, so no {@link Token} or {@link SourceLocation} is
+ * allocated unless it's asked for.
+ */
+public final class TokenBuffer {
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] types;
+    private int[] offsets;
+    private int[] lengths;
+    private int[] lines;
+    private int[] columns;
+    private int[] valueIndices;
+    // Indices are of every token added, but tokens before start have been dropped from the arrays
+    private int start, size, discardable;
+
+    private final List<Object> values = new ArrayList<>();
+    private Map<Object, Integer> valueIndexLookup = new HashMap<>();
+
+    public TokenBuffer() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public TokenBuffer(int initialCapacity) {
+        types = new int[initialCapacity];
+        offsets = new int[initialCapacity];
+        lengths = new int[initialCapacity];
+        lines = new int[initialCapacity];
+        columns = new int[initialCapacity];
+        valueIndices = new int[initialCapacity];
+    }
+
+    /**
+     * Packs already created tokens. Their offsets aren't known, so {@link #getOffset} returns {@code -1} for them.
+     */
+    public static TokenBuffer of(List<Token> tokens) {
+        final TokenBuffer result = new TokenBuffer(Math.max(tokens.size(), 1));
+        for (final Token token : tokens) {
+            final SourceLocation location = token.getLocation();
+            final Object value;
+            if (token instanceof Token.Identifier identifier) {
+                value = identifier.getIdentifier();
+            } else if (token instanceof Token.Str str) {
+                value = str.getValue();
+            } else if (token instanceof Token.Num num) {
+                value = num.getValue();
+            } else {
+                value = null;
+            }
+            result.add(token.getType(), value, -1, location.line(), location.column(), location.length());
+        }
+        return result.trim();
+    }
+
+    void add(TokenType type, Object value, int offset, int line, int column, int length) {
+        int row = size - start;
+        if (row == types.length) {
+            if (discardable - start >= types.length / 2) {
+                compact();
+                row = size - start;
+            } else {
+                resize(Math.max(row * 2, INITIAL_CAPACITY));
+            }
+        }
+        types[row] = type.ordinal();
+        offsets[row] = offset;
+        lengths[row] = length;
+        lines[row] = line;
+        columns[row] = column;
+        valueIndices[row] = value != null ? valueIndex(value) : -1;
+        size++;
+    }
+
+    /**
+     * Allows the tokens before {@code index} to be dropped, so that a parser reading tokens as they're produced
+     * doesn't need to keep all of them. They may no longer be read afterwards.
+     */
+    public void discardBefore(int index) {
+        if (index > discardable) {
+            discardable = Math.min(index, size);
+        }
+    }
+
+    private void compact() {
+        final int count = discardable - start;
+        final int remaining = size - discardable;
+        for (final int[] array : new int[][] {types, offsets, lengths, lines, columns, valueIndices}) {
+            System.arraycopy(array, count, array, 0, remaining);
+        }
+        start = discardable;
+    }
+
+    private void resize(int capacity) {
+        types = Arrays.copyOf(types, capacity);
+        offsets = Arrays.copyOf(offsets, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        columns = Arrays.copyOf(columns, capacity);
+        valueIndices = Arrays.copyOf(valueIndices, capacity);
+    }
+
+    // Generated sources repeat the same identifiers over and over, so they're only stored once
+    private int valueIndex(Object value) {
+        final Integer existing = valueIndexLookup.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        final int index = values.size();
+        values.add(value);
+        valueIndexLookup.put(value, index);
+        return index;
+    }
+
+    /**
+     * Shrinks the arrays to the number of tokens, and drops the lookup used to deduplicate values. Tokens can't be
+     * added afterwards.
+     */
+    TokenBuffer trim() {
+        if (types.length != size - start) {
+            resize(size - start);
+        }
+        valueIndexLookup = null;
+        return this;
+    }
+
+    /**
+     * @return The number of tokens added, including any that were discarded
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public TokenType getType(int index) {
+        return TYPES[types[checkIndex(index)]];
+    }
+
+    /**
+     * @return The char offset of the token in the source, or {@code -1} if it isn't known
+     */
+    public int getOffset(int index) {
+        return offsets[checkIndex(index)];
+    }
+
+    public int getLength(int index) {
+        return lengths[checkIndex(index)];
+    }
+
+    public int getLine(int index) {
+        return lines[checkIndex(index)];
+    }
+
+    public int getColumn(int index) {
+        return columns[checkIndex(index)];
+    }
+
+    public SourceLocation getLocation(int index) {
+        final int row = checkIndex(index);
+        return new SourceLocation(lines[row], columns[row], lengths[row]);
+    }
+
+    /**
+     * @return The {@code String} of an identifier or string token, the {@code Number} of a number token, or
+     * {@code null} for any other token
+     */
+    public Object getValue(int index) {
+        final int valueIndex = valueIndices[checkIndex(index)];
+        return valueIndex != -1 ? values.get(valueIndex) : null;
+    }
+
+    public String getIdentifier(int index) {
+        return (String)getValue(requireType(index, TokenType.IDENTIFIER));
+    }
+
+    public String getString(int index) {
+        return (String)getValue(requireType(index, TokenType.STRING));
+    }
+
+    public Number getNumber(int index) {
+        return (Number)getValue(requireType(index, TokenType.NUMBER));
+    }
+
+    public String prettyPrint(int index) {
+        final TokenType type = getType(index);
+        return switch (type) {
+            case IDENTIFIER -> Token.Identifier.prettyPrint((String)getValue(index));
+            case STRING -> Token.Str.prettyPrint((String)getValue(index));
+            case NUMBER -> getValue(index).toString();
+            default -> type.getBasicText();
+        };
+    }
+
+    public Token getToken(int index) {
+        final SourceLocation location = getLocation(index);
+        final TokenType type = getType(index);
+        return switch (type) {
+            case IDENTIFIER -> new Token.Identifier((String)getValue(index), location);
+            case STRING -> new Token.Str((String)getValue(index), location);
+            case NUMBER -> new Token.Num((Number)getValue(index), location);
+            default -> new Token.Basic(type, location);
+        };
+    }
+
+    public List<Token> toList() {
+        final Token[] result = new Token[size - start];
+        for (int i = start; i < size; i++) {
+            result[i - start] = getToken(i);
+        }
+        return List.of(result);
+    }
+
+    // Returns the row in the arrays
+    private int checkIndex(int index) {
+        if (index < start || index >= size) {
+            throw new IndexOutOfBoundsException(
+                "Token " + index + (index < start ? " was discarded" : " out of bounds for size " + size)
+            );
+        }
+        return index - start;
+    }
+
+    private int requireType(int index, TokenType type) {
+        if (getType(index) != type) {
+            throw new IllegalArgumentException("Token " + index + " is " + getType(index) + ", not " + type);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,310 @@
+package glang.compiler.tree;
+
+import glang.compiler.ArithmeticMode;
+import glang.compiler.SourceLocation;
+import glang.compiler.tree.expression.*;
+import glang.compiler.tree.statement.*;
+import glang.runtime.GlangRuntime;
+
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Simplifies a tree before it's compiled. Constant expressions are evaluated with the runtime's own operators, so
+ * folding never changes what an expression evaluates to. Nodes that don't change are returned as is.
+ */
+public final class GlangOptimizer {
+    private static final int MAX_FOLDED_STRING_LENGTH = 4096;
+    private static final Map<BinaryExpression.Operator, String> FOLDABLE_OPERATORS = new EnumMap<>(Map.of(
+        BinaryExpression.Operator.ADD, "add",
+        BinaryExpression.Operator.SUBTRACT, "subtract",
+        BinaryExpression.Operator.MULTIPLY, "multiply",
+        BinaryExpression.Operator.DIVIDE, "divide",
+        BinaryExpression.Operator.MODULO, "modulo",
+
+        BinaryExpression.Operator.EQ, "equals",
+        BinaryExpression.Operator.LT, "lessThan",
+        BinaryExpression.Operator.GT, "greaterThan",
+        BinaryExpression.Operator.LE, "lessThanEqual",
+        BinaryExpression.Operator.GE, "greaterThanEqual"
+    ));
+    private static final Set<Class<?>> FOLDABLE_TYPES = Set.of(
+        Integer.class, Long.class, Double.class, BigInteger.class, String.class, Boolean.class
+    );
+
+    private final ArithmeticMode arithmeticMode;
+
+    private GlangOptimizer(ArithmeticMode arithmeticMode) {
+        this.arithmeticMode = arithmeticMode;
+    }
+
+    public static StatementList optimize(StatementList code) {
+        return optimize(code, ArithmeticMode.WRAPPING);
+    }
+
+    /**
+     * @param arithmeticMode The mode the namespace is compiled with, which constants are folded with
+     */
+    public static StatementList optimize(StatementList code, ArithmeticMode arithmeticMode) {
+        return new GlangOptimizer(arithmeticMode).optimizeList(code);
+    }
+
+    private StatementList optimizeList(StatementList list) {
+        final List<StatementNode> result = new ArrayList<>(list.getStatements().size());
+        boolean changed = false;
+        for (final StatementNode statement : list.getStatements()) {
+            final StatementNode optimized = optimizeStatement(statement);
+            if (optimized != statement) {
+                changed = true;
+            }
+            if (optimized != null) {
+                result.add(optimized);
+            }
+        }
+        return changed ? new StatementList(result, list.getStartLocation(), list.getEndLocation()) : list;
+    }
+
+    /**
+     * @return The optimized statement, or {@code null} if it can be removed entirely
+     */
+    private StatementNode optimizeStatement(StatementNode statement) {
+        if (statement instanceof ExpressionStatement expr) {
+            final ExpressionNode expression = optimizeExpression(expr.getExpression());
+            if (expression == expr.getExpression()) {
+                return statement;
+            }
+            return new ExpressionStatement(expression, statement.getStartLocation(), statement.getEndLocation());
+        } else if (statement instanceof BlockStatement block) {
+            final StatementList statements = optimizeList(block.getStatements());
+            if (statements == block.getStatements()) {
+                return statement;
+            }
+            return new BlockStatement(statements, statement.getStartLocation(), statement.getEndLocation());
+        } else if (statement instanceof VariableDeclaration decl && decl.getInitializer() != null) {
+            final ExpressionNode initializer = optimizeExpression(decl.getInitializer());
+            if (initializer == decl.getInitializer()) {
+                return statement;
+            }
+            return new VariableDeclaration(
+                decl.getName(), initializer, statement.getStartLocation(), statement.getEndLocation()
+            );
+        } else if (statement instanceof IfOrWhileStatement ifOrWhile) {
+            return optimizeIfOrWhile(ifOrWhile);
+        }
+        return statement;
+    }
+
+    private StatementNode optimizeIfOrWhile(IfOrWhileStatement statement) {
+        final ExpressionNode condition = optimizeCondition(statement.getCondition());
+        final StatementNode body = optimizeStatement(statement.getBody());
+        final StatementNode elseBody = statement.getElseBody() != null
+            ? optimizeStatement(statement.getElseBody())
+            : null;
+
+        // Blocked bodies are compile errors, so they're left for the compiler to report
+        final boolean blockedBody = IfOrWhileStatement.isBlockedBody(statement.getBody()) ||
+            (statement.getElseBody() != null && IfOrWhileStatement.isBlockedBody(statement.getElseBody()));
+        if (isFoldable(condition) && !blockedBody) {
+            final boolean truthy = isTruthy(((LiteralExpression<?>)condition).getValue());
+            if (!statement.isWhile()) {
+                return truthy ? body : elseBody;
+            }
+            if (!truthy && elseBody == null) {
+                return null;
+            }
+        }
+
+        if (condition == statement.getCondition() && body == statement.getBody() && elseBody == statement.getElseBody()) {
+            return statement;
+        }
+        return new IfOrWhileStatement(
+            condition, statement.isWhile(),
+            body != null ? body : emptyBlock(statement.getBody()),
+            elseBody != null || statement.getElseBody() == null ? elseBody : emptyBlock(statement.getElseBody()),
+            statement.getStartLocation(), statement.getEndLocation()
+        );
+    }
+
+    /**
+     * Only the truthiness of a condition matters, so {@code !!x} can become {@code x}.
+     */
+    private ExpressionNode optimizeCondition(ExpressionNode condition) {
+        condition = optimizeExpression(condition);
+        while (
+            condition instanceof UnaryExpression unary && unary.getOperator() == UnaryExpression.Operator.NOT &&
+                unary.getOperand() instanceof UnaryExpression inner && inner.getOperator() == UnaryExpression.Operator.NOT
+        ) {
+            condition = inner.getOperand();
+        }
+        return condition;
+    }
+
+    private ExpressionNode optimizeExpression(ExpressionNode expression) {
+        if (expression instanceof BinaryExpression binary) {
+            return optimizeBinary(binary);
+        } else if (expression instanceof UnaryExpression unary) {
+            return optimizeUnary(unary);
+        } else if (expression instanceof CallExpression call) {
+            final ExpressionNode target = optimizeExpression(call.getTarget());
+            boolean changed = target != call.getTarget();
+            final List<ExpressionNode> args = new ArrayList<>(call.getArgs().size());
+            for (final ExpressionNode arg : call.getArgs()) {
+                final ExpressionNode optimized = optimizeExpression(arg);
+                changed |= optimized != arg;
+                args.add(optimized);
+            }
+            if (!changed) {
+                return expression;
+            }
+            return new CallExpression(target, args, expression.getStartLocation(), expression.getEndLocation());
+        } else if (expression instanceof AccessExpression access) {
+            final ExpressionNode target = optimizeExpression(access.getTarget());
+            if (target == access.getTarget()) {
+                return expression;
+            }
+            return new AccessExpression(
+                target, access.getMember(), access.getOperator(),
+                expression.getStartLocation(), expression.getEndLocation()
+            );
+        } else if (expression instanceof AssignmentExpression assignment) {
+            // The variable itself is left alone, since it has to stay assignable
+            final ExpressionNode value = optimizeExpression(assignment.getValue());
+            if (value == assignment.getValue()) {
+                return expression;
+            }
+            return new AssignmentExpression(
+                assignment.getVariable(), assignment.getOperator(), value,
+                expression.getStartLocation(), expression.getEndLocation()
+            );
+        }
+        return expression;
+    }
+
+    private ExpressionNode optimizeBinary(BinaryExpression binary) {
+        final ExpressionNode left = optimizeExpression(binary.getLeft());
+        final ExpressionNode right = optimizeExpression(binary.getRight());
+        final String opName = FOLDABLE_OPERATORS.get(binary.getOperator());
+        if (opName != null && isFoldable(left) && isFoldable(right) && !isFoldedStringTooLong(left, right, opName)) {
+            try {
+                final Object lhs = ((LiteralExpression<?>)left).getValue();
+                final Object rhs = ((LiteralExpression<?>)right).getValue();
+                final Object result = arithmeticMode == ArithmeticMode.PROMOTING
+                    ? GlangRuntime.promotingBinaryOperator(lhs, rhs, opName)
+                    : GlangRuntime.binaryOperator(lhs, rhs, opName);
+                final ExpressionNode folded = toLiteral(result, binary);
+                if (folded != null) {
+                    return folded;
+                }
+            } catch (Exception ignored) {
+                // Such as division by zero, which needs to happen at runtime
+            } catch (Throwable t) {
+                if (t instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException("Unexpected throwable while folding", t);
+            }
+        }
+        if (left == binary.getLeft() && right == binary.getRight()) {
+            return binary;
+        }
+        return new BinaryExpression(left, binary.getOperator(), right, binary.getStartLocation(), binary.getEndLocation());
+    }
+
+    private ExpressionNode optimizeUnary(UnaryExpression unary) {
+        final ExpressionNode operand = optimizeExpression(unary.getOperand());
+        if (unary.getOperator() == UnaryExpression.Operator.NEGATE && operand instanceof NumberExpression numExpr) {
+            // The same as GlangCompiler's own negative literal handling, but done early so the result can be folded
+            final Number num = numExpr.getValue();
+            final Number negated;
+            if (num instanceof Integer integer) {
+                negated = -integer;
+            } else if (num instanceof Double doubleValue) {
+                negated = -doubleValue;
+            } else if (num instanceof Long longValue) {
+                negated = -longValue;
+            } else if (num instanceof BigInteger bigInteger) {
+                negated = bigInteger.negate();
+            } else {
+                negated = null;
+            }
+            if (negated != null) {
+                return new NumberExpression(negated, location(unary));
+            }
+        }
+        if (unary.getOperator() == UnaryExpression.Operator.NOT) {
+            if (operand instanceof LiteralExpression<?> literal && isFoldable(literal)) {
+                return new BooleanExpression(!isTruthy(literal.getValue()), location(unary));
+            }
+            // !!!x is the same as !x
+            if (
+                operand instanceof UnaryExpression inner && inner.getOperator() == UnaryExpression.Operator.NOT &&
+                    inner.getOperand() instanceof UnaryExpression innermost &&
+                    innermost.getOperator() == UnaryExpression.Operator.NOT
+            ) {
+                return innermost;
+            }
+        }
+        if (operand == unary.getOperand()) {
+            return unary;
+        }
+        return new UnaryExpression(unary.getOperator(), operand, unary.getStartLocation(), unary.getEndLocation());
+    }
+
+    private static boolean isFoldable(ExpressionNode expression) {
+        if (expression instanceof NullExpression) {
+            return true;
+        }
+        return (
+            expression instanceof NumberExpression ||
+                expression instanceof StringExpression ||
+                expression instanceof BooleanExpression
+        ) && FOLDABLE_TYPES.contains(((LiteralExpression<?>)expression).getValue().getClass());
+    }
+
+    private static ExpressionNode toLiteral(Object value, ExpressionNode replacing) {
+        if (value == null || !FOLDABLE_TYPES.contains(value.getClass())) {
+            return null;
+        }
+        final SourceLocation location = location(replacing);
+        if (value instanceof Boolean b) {
+            return new BooleanExpression(b, location);
+        }
+        if (value instanceof String s) {
+            return s.length() <= MAX_FOLDED_STRING_LENGTH ? new StringExpression(s, location) : null;
+        }
+        return new NumberExpression((Number)value, location);
+    }
+
+    // Only String's own add and multiply make strings out of literals, so their length is known before evaluating
+    private static boolean isFoldedStringTooLong(ExpressionNode left, ExpressionNode right, String opName) {
+        if (!(((LiteralExpression<?>)left).getValue() instanceof String s)) {
+            return false;
+        }
+        final Object rhs = ((LiteralExpression<?>)right).getValue();
+        final long length = switch (opName) {
+            case "add" -> (long)s.length() + String.valueOf(rhs).length();
+            case "multiply" -> rhs instanceof Integer count ? (long)s.length() * count : 0;
+            default -> 0;
+        };
+        return length > MAX_FOLDED_STRING_LENGTH;
+    }
+
+    private static boolean isTruthy(Object value) {
+        try {
+            return GlangRuntime.isTruthy(value);
+        } catch (Throwable t) {
+            throw new IllegalStateException("Literal truthiness can't fail", t);
+        }
+    }
+
+    private static SourceLocation location(ExpressionNode expression) {
+        return Objects.requireNonNullElse(expression.singleLineLocation(), expression.getStartLocation());
+    }
+
+    private static StatementNode emptyBlock(StatementNode replacing) {
+        return new BlockStatement(
+            new StatementList(List.of(), replacing.getStartLocation(), replacing.getEndLocation()),
+            replacing.getStartLocation(), replacing.getEndLocation()
+        );
+    }
+}
@@ -6,8 +6,6 @@ import glang.compiler.error.ErrorCollector;
 import glang.compiler.token.*;
 import glang.compiler.tree.expression.*;
 import glang.compiler.tree.statement.*;
-import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -15,42 +13,67 @@ import java.util.Set;
 import java.util.function.IntFunction;
 
 public class GlangTreeifier {
-    private final Token[] tokens;
+    private final TokenBuffer tokens;
     private final ErrorCollector errorCollector;
-    private final Token eof;
+    // Tokens are read from this as they're needed, until it's used up
+    private GlangTokenizer tokenizer;
+    private SourceLocation eofLocation;
 
+    // Tokens are referred to by their index in tokens. Once there are no more, the index after the last one is EOF.
     private int index;
 
-    public GlangTreeifier(List<Token> tokens, ErrorCollector errorCollector) {
-        this.tokens = tokens.toArray(Token[]::new);
+    public GlangTreeifier(TokenBuffer tokens, ErrorCollector errorCollector) {
+        this.tokens = tokens;
         this.errorCollector = errorCollector;
+        this.eofLocation = computeEofLocation();
+    }
 
-        if (!tokens.isEmpty()) {
-            final SourceLocation end = this.tokens[this.tokens.length - 1].getLocation();
-            this.eof = new Token.Basic(TokenType.EOF, new SourceLocation(end.line(), end.column() + end.length()));
-        } else {
-            this.eof = new Token.Basic(TokenType.EOF, SourceLocation.NULL);
-        }
+    /**
+     * Parses tokens as {@code tokenizer} produces them, without keeping the ones already parsed. Because of this, it
+     * can only be treeified once.
+     */
+    public GlangTreeifier(GlangTokenizer tokenizer, ErrorCollector errorCollector) {
+        this.tokens = new TokenBuffer();
+        this.errorCollector = errorCollector;
+        this.tokenizer = tokenizer;
+    }
+
+    public GlangTreeifier(List<Token> tokens, ErrorCollector errorCollector) {
+        this(TokenBuffer.of(tokens), errorCollector);
     }
 
     public GlangTreeifier(List<Token> tokens, IntFunction<String> lineGetter) {
         this(tokens, new ErrorCollector(lineGetter));
     }
 
-    public GlangTreeifier(String source) throws TokenizeFailure {
-        this(GlangTokenizer.tokenize(source), new ErrorCollector(source));
+    public GlangTreeifier(String source) {
+        this(new GlangTokenizer(source), new ErrorCollector(source));
     }
 
     public static StatementList treeify(String source) throws CompileFailedException {
-        final GlangTreeifier treeifier = new GlangTreeifier(source);
+        return treeify(new GlangTokenizer(source), new ErrorCollector(source));
+    }
+
+    public static StatementList treeify(
+        GlangTokenizer tokenizer, ErrorCollector errorCollector
+    ) throws CompileFailedException {
+        final GlangTreeifier treeifier = new GlangTreeifier(tokenizer, errorCollector);
         final StatementList result = treeifier.treeify();
-        treeifier.errorCollector.throwIfFailed();
+        errorCollector.throwIfFailed();
         return result;
     }
 
-    public StatementList treeify() {
+    /**
+     * @throws TokenizeFailure If the tokens are being read from a {@link GlangTokenizer}, and it failed. Parse errors
+     * before it aren't reported.
+     */
+    public StatementList treeify() throws TokenizeFailure {
         reset();
-        return statementList(TokenType.EOF);
+        try {
+            return statementList(TokenType.EOF);
+        } catch (UncheckedTokenizeFailure e) {
+            throw e.getCause();
+        }
     }
 
     public ErrorCollector getErrorCollector() {
@@ -63,7 +86,7 @@ public class GlangTreeifier {
 
     public StatementList statementList(TokenType end) {
         final List<StatementNode> statements = new ArrayList<>();
-        final SourceLocation startLocation = peek().getLocation();
+        final SourceLocation startLocation = peekLocation();
         boolean foundAny = false;
         while (!check(end) && !check(TokenType.EOF)) {
             foundAny = true;
@@ -77,7 +100,7 @@ public class GlangTreeifier {
     }
 
     public BlockStatement block() {
-        if (expectSafe(TokenType.LCURLY) == null) {
+        if (expectSafe(TokenType.LCURLY) == -1) {
             final SourceLocation location = getSourceLocation();
             return new BlockStatement(new StatementList(List.of(), location, location), location, location);
         }
@@ -138,7 +161,7 @@ public class GlangTreeifier {
                 parts.add(null);
                 break;
             }
-            parts.add(((Token.Identifier)expect(TokenType.IDENTIFIER)).getIdentifier());
+            parts.add(tokens.getIdentifier(expect(TokenType.IDENTIFIER)));
         } while (match(TokenType.DOT));
         endOfStatement();
         final SourceLocation endLocation = getSourceLocation();
@@ -151,7 +174,7 @@ public class GlangTreeifier {
     private VariableDeclaration variableDeclaration() {
         expect(TokenType.VAR);
         final SourceLocation startLocation = getSourceLocation();
-        final String name = ((Token.Identifier)expect(TokenType.IDENTIFIER)).getIdentifier();
+        final String name = tokens.getIdentifier(expect(TokenType.IDENTIFIER));
         ExpressionNode initializer = null;
         if (match(TokenType.EQUAL)) {
             initializer = expression();
@@ -179,7 +202,7 @@ public class GlangTreeifier {
     }
 
     private StatementNode conditionalBody(String statementType) {
-        final SourceLocation location = peek().getLocation();
+        final SourceLocation location = peekLocation();
         final StatementNode body = statement();
         if (body == null) {
             throw SkipStatement.INSTANCE;
@@ -191,7 +214,7 @@ public class GlangTreeifier {
     }
 
     private ExpressionStatement expressionStatement() {
-        final SourceLocation startLocation = peek().getLocation();
+        final SourceLocation startLocation = peekLocation();
         final ExpressionNode expression = expression();
         endOfStatement();
         final SourceLocation endLocation = getSourceLocation();
@@ -201,7 +224,7 @@ public class GlangTreeifier {
     private void endOfStatement() {
         if (
             !match(TokenType.SEMI) && !check(TokenType.RCURLY) && !check(TokenType.EOF) &&
-                peek().getLocation().line() == last().getLocation().line()
+                peekLine() == tokens.getLine(lastIndex())
         ) {
             next();
             errorSafe("Multiple statements on one line should be separated with a semicolon");
@@ -215,10 +238,10 @@ public class GlangTreeifier {
 
     // TODO: Specify source locations
     private ExpressionNode assignment() {
-        final SourceLocation startLocation = peek().getLocation();
+        final SourceLocation startLocation = peekLocation();
         final ExpressionNode variable = or();
         if (check(TokenGroup.ASSIGNMENT)) {
-            final TokenType operator = next().getType();
+            final TokenType operator = typeOf(next());
             if (!(variable instanceof AssignableExpression)) {
                 throw error(variable.getClass().getSimpleName() + " is not assignable");
             }
@@ -230,7 +253,7 @@ public class GlangTreeifier {
     }
 
     private ExpressionNode or() {
-        final SourceLocation startLocation = peek().getLocation();
+        final SourceLocation startLocation = peekLocation();
         ExpressionNode left = and();
         while (match(TokenType.OR_OR)) {
             final ExpressionNode right = and();
@@ -241,7 +264,7 @@ public class GlangTreeifier {
     }
 
     private ExpressionNode and() {
-        final SourceLocation startLocation = peek().getLocation();
+        final SourceLocation startLocation = peekLocation();
         ExpressionNode left = comparison();
         while (match(TokenType.AND_AND)) {
             final ExpressionNode right = comparison();
@@ -252,10 +275,10 @@ public class GlangTreeifier {
     }
 
     private ExpressionNode comparison() {
-        final SourceLocation startLocation = peek().getLocation();
+        final SourceLocation startLocation = peekLocation();
         ExpressionNode left = bitwiseOr();
         while (check(TokenGroup.COMPARISON)) {
-            final BinaryExpression.Operator operator = BinaryExpression.Operator.BY_TOKEN.get(next().getType());
+            final BinaryExpression.Operator operator = BinaryExpression.Operator.BY_TOKEN.get(typeOf(next()));
             final ExpressionNode right = bitwiseOr();
             final SourceLocation endLocation = getSourceLocation();
             left = new BinaryExpression(left, operator, right, startLocation, endLocation);
@@ -264,7 +287,7 @@ public class GlangTreeifier {
     }
 
     private ExpressionNode bitwiseOr() {
-        final SourceLocation startLocation = peek().getLocation();
+        final SourceLocation startLocation = peekLocation();
         ExpressionNode left = bitwiseXor();
         while (match(TokenType.OR)) {
             final ExpressionNode right = bitwiseXor();
@@ -275,7 +298,7 @@ public class GlangTreeifier {
     }
 
     private ExpressionNode bitwiseXor() {
-        final SourceLocation startLocation = peek().getLocation();
+        final SourceLocation startLocation = peekLocation();
         ExpressionNode left = bitwiseAnd();
         while (match(TokenType.CARET)) {
             final ExpressionNode right = bitwiseAnd();
@@ -286,7 +309,7 @@ public class GlangTreeifier {
     }
 
     private ExpressionNode bitwiseAnd() {
-        final SourceLocation startLocation = peek().getLocation();
+        final SourceLocation startLocation = peekLocation();
         ExpressionNode left = bitShift();
         while (match(TokenType.AND)) {
             final ExpressionNode right = bitShift();
@@ -297,10 +320,10 @@ public class GlangTreeifier {
     }
 
     private ExpressionNode bitShift() {
-        final SourceLocation startLocation = peek().getLocation();
+        final SourceLocation startLocation = peekLocation();
         ExpressionNode left = term();
         while (check(TokenGroup.BIT_SHIFT)) {
-            final BinaryExpression.Operator operator = BinaryExpression.Operator.BY_TOKEN.get(next().getType());
+            final BinaryExpression.Operator operator = BinaryExpression.Operator.BY_TOKEN.get(typeOf(next()));
             final ExpressionNode right = term();
             final SourceLocation endLocation = getSourceLocation();
             left = new BinaryExpression(left, operator, right, startLocation, endLocation);
@@ -309,10 +332,10 @@ public class GlangTreeifier {
     }
 
     private ExpressionNode term() {
-        final SourceLocation startLocation = peek().getLocation();
+        final SourceLocation startLocation = peekLocation();
         ExpressionNode left = factor();
         while (check(TokenGroup.TERM)) {
-            final BinaryExpression.Operator operator = BinaryExpression.Operator.BY_TOKEN.get(next().getType());
+            final BinaryExpression.Operator operator = BinaryExpression.Operator.BY_TOKEN.get(typeOf(next()));
             final ExpressionNode right = factor();
             final SourceLocation endLocation = getSourceLocation();
             left = new BinaryExpression(left, operator, right, startLocation, endLocation);
@@ -321,10 +344,10 @@ public class GlangTreeifier {
     }
 
     private ExpressionNode factor() {
-        final SourceLocation startLocation = peek().getLocation();
+        final SourceLocation startLocation = peekLocation();
         ExpressionNode left = unary();
         if (check(TokenGroup.FACTOR)) {
-            final BinaryExpression.Operator operator = BinaryExpression.Operator.BY_TOKEN.get(next().getType());
+            final BinaryExpression.Operator operator = BinaryExpression.Operator.BY_TOKEN.get(typeOf(next()));
             final ExpressionNode right = unary();
             final SourceLocation endLocation = getSourceLocation();
             left = new BinaryExpression(left, operator, right, startLocation, endLocation);
@@ -333,9 +356,9 @@ public class GlangTreeifier {
     }
 
     private ExpressionNode unary() {
-        final SourceLocation startLocation = peek().getLocation();
+        final SourceLocation startLocation = peekLocation();
         if (check(TokenGroup.UNARY)) {
-            final UnaryExpression.Operator operator = UnaryExpression.Operator.BY_TOKEN.get(next().getType());
+            final UnaryExpression.Operator operator = UnaryExpression.Operator.BY_TOKEN.get(typeOf(next()));
             final ExpressionNode operand = unary();
             final SourceLocation endLocation = getSourceLocation();
             return new UnaryExpression(operator, operand, startLocation, endLocation);
@@ -344,14 +367,14 @@ public class GlangTreeifier {
     }
 
     private ExpressionNode call() {
-        final SourceLocation startLocation = peek().getLocation();
+        final SourceLocation startLocation = peekLocation();
         ExpressionNode target = primary();
         while (true) {
             if (match(TokenType.LPAREN)) {
                 target = finishCall(startLocation, target);
             } else if (check(TokenGroup.ACCESS)) {
-                final AccessExpression.Operator operator = AccessExpression.Operator.BY_TOKEN.get(next().getType());
-                final String member = ((Token.Identifier)expect(TokenType.IDENTIFIER)).getIdentifier();
+                final AccessExpression.Operator operator = AccessExpression.Operator.BY_TOKEN.get(typeOf(next()));
+                final String member = tokens.getIdentifier(expect(TokenType.IDENTIFIER));
                 final SourceLocation endLocation = getSourceLocation();
                 target = new AccessExpression(target, member, operator, startLocation, endLocation);
             } else {
@@ -389,28 +412,28 @@ public class GlangTreeifier {
             return new NullExpression(getSourceLocation());
         }
         if (check(TokenType.IDENTIFIER)) {
-            return new IdentifierExpression(((Token.Identifier)next()).getIdentifier(), getSourceLocation());
+            return new IdentifierExpression(tokens.getIdentifier(next()), getSourceLocation());
         }
         if (check(TokenType.STRING)) {
-            return new StringExpression(((Token.Str)next()).getValue(), getSourceLocation());
+            return new StringExpression(tokens.getString(next()), getSourceLocation());
         }
         if (check(TokenType.NUMBER)) {
-            return new NumberExpression(((Token.Num)next()).getValue(), getSourceLocation());
+            return new NumberExpression(tokens.getNumber(next()), getSourceLocation());
         }
         if (match(TokenType.LPAREN)) {
             final ExpressionNode result = expression();
             expect(TokenType.RPAREN);
             return result;
         }
-        throw error("Expected expression, found " + next().prettyPrint());
+        throw error("Expected expression, found " + prettyPrint(next()));
     }
 
     private boolean check(TokenType tokenType) {
-        return peek().getType() == tokenType;
+        return peekType() == tokenType;
     }
 
     private boolean check(Set<TokenType> tokenTypes) {
-        return tokenTypes.contains(peek().getType());
+        return tokenTypes.contains(peekType());
     }
 
     private boolean match(TokenType tokenType) {
@@ -421,27 +444,30 @@ public class GlangTreeifier {
         return false;
     }
 
-    @NotNull
-    private <T extends Token> T expect(TokenType tokenType) {
-        final T result = expectSafe(tokenType);
-        if (result == null) {
+    /**
+     * @return The index of the token
+     */
+    private int expect(TokenType tokenType) {
+        final int result = expectSafe(tokenType);
+        if (result == -1) {
             throw SkipStatement.INSTANCE;
         }
         return result;
     }
 
-    @Nullable
-    @SuppressWarnings("unchecked")
-    private <T extends Token> T expectSafe(TokenType tokenType) {
-        final Token next = next();
-        if (next.getType() != tokenType) {
+    /**
+     * @return The index of the token, or {@code -1} if it wasn't {@code tokenType}
+     */
+    private int expectSafe(TokenType tokenType) {
+        final int next = next();
+        if (typeOf(next) != tokenType) {
             errorCollector.addError(
-                "Expected '" + tokenType + "', found '" + next.prettyPrint() + "'",
-                next.getLocation()
+                "Expected '" + tokenType + "', found '" + prettyPrint(next) + "'",
+                locationOf(next)
             );
-            return null;
+            return -1;
         }
-        return (T)next;
+        return next;
     }
 
     private SkipStatement error(String reason) {
@@ -455,32 +481,91 @@ public class GlangTreeifier {
     }
 
     private SourceLocation getSourceLocation() {
-        return last().getLocation();
+        return tokens.getLocation(lastIndex());
     }
 
-    private Token peek() {
-        return index < tokens.length ? tokens[index] : eof;
+    private boolean hasToken(int token) {
+        while (token >= tokens.size() && tokenizer != null) {
+            readToken();
+        }
+        return token < tokens.size();
     }
 
-    private Token peek(int offset) {
+    private void readToken() {
+        // last() and rewind(1) after next() can look up to two tokens back
+        tokens.discardBefore(index - 2);
+        try {
+            if (!tokenizer.nextToken(tokens)) {
+                tokenizer = null;
+                eofLocation = computeEofLocation();
+            }
+        } catch (TokenizeFailure e) {
+            throw new UncheckedTokenizeFailure(e);
+        }
+    }
+
+    private SourceLocation computeEofLocation() {
+        if (tokens.isEmpty()) {
+            return SourceLocation.NULL;
+        }
+        final int end = tokens.size() - 1;
+        return new SourceLocation(tokens.getLine(end), tokens.getColumn(end) + tokens.getLength(end));
+    }
+
+    private TokenType typeOf(int token) {
+        return hasToken(token) ? tokens.getType(token) : TokenType.EOF;
+    }
+
+    private SourceLocation locationOf(int token) {
+        return hasToken(token) ? tokens.getLocation(token) : eofLocation;
+    }
+
+    private String prettyPrint(int token) {
+        return hasToken(token) ? tokens.prettyPrint(token) : TokenType.EOF.getBasicText();
+    }
+
+    private TokenType peekType() {
+        return typeOf(index);
+    }
+
+    private SourceLocation peekLocation() {
+        return locationOf(index);
+    }
+
+    private int peekLine() {
+        return hasToken(index) ? tokens.getLine(index) : eofLocation.line();
+    }
+
+    private int peek(int offset) {
         if (offset < 0) {
             throw new IllegalArgumentException("Cannot peek backwards. Use peekLast().");
         }
-        return index + offset < tokens.length ? tokens[index + offset] : eof;
+        int result = index;
+        while (result < index + offset && hasToken(result)) {
+            result++;
+        }
+        return result;
     }
 
     public Token last() {
+        return tokens.getToken(lastIndex());
+    }
+
+    private int lastIndex() {
         if (index == 0) {
             throw new IllegalArgumentException("Cannot peekLast() at index 0");
         }
-        return tokens[index - 1];
+        return index - 1;
     }
 
-    private Token next() {
-        if (index >= tokens.length) {
-            return eof;
+    /**
+     * @return The index of the token, which is the EOF token once there are none left
+     */
+    private int next() {
+        if (!hasToken(index)) {
+            return index;
         }
-        return tokens[index++];
+        return index++;
     }
 
     private void rewind(int n) {
@@ -499,7 +584,21 @@ public class GlangTreeifier {
         if (n < 0) {
             throw new IllegalArgumentException("Cannot skip negative distance. Use rewind().");
         }
-        index = Math.min(index + n, tokens.length);
+        for (int i = 0; i < n && hasToken(index); i++) {
+            index++;
+        }
+    }
+
+    // Carries a TokenizeFailure out of the parser, which reads tokens on demand, to treeify()
+    private static class UncheckedTokenizeFailure extends RuntimeException {
+        UncheckedTokenizeFailure(TokenizeFailure cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized TokenizeFailure getCause() {
+            return (TokenizeFailure)super.getCause();
+        }
     }
 
     private static class SkipStatement extends RuntimeException {
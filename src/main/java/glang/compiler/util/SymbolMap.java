@@ -4,8 +4,16 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
+/**
+ * A trie of symbols. Children for ASCII characters are kept in an array indexed by the character, so walking an
+ * operator doesn't box or hash anything. Other characters fall back to a map.
+ */
 public class SymbolMap<V> {
-    private final Map<Character, SymbolMap<V>> subMaps = new HashMap<>();
+    private static final int ASCII_SIZE = 128;
+
+    @SuppressWarnings("unchecked")
+    private final SymbolMap<V>[] asciiSubMaps = (SymbolMap<V>[])new SymbolMap<?>[ASCII_SIZE];
+    private Map<Character, SymbolMap<V>> otherSubMaps;
     private int size;
     private V value;
 
@@ -17,7 +25,7 @@ public class SymbolMap<V> {
         if (length == 0) {
             return value;
         }
-        final SymbolMap<V> next = subMaps.get(key.charAt(start));
+        final SymbolMap<V> next = getNext(key.charAt(start));
         if (next == null) {
             return null;
         }
@@ -37,16 +45,32 @@ public class SymbolMap<V> {
             }
             return oldValue;
         }
-        final V oldValue = subMaps.computeIfAbsent(key.charAt(start), c -> new SymbolMap<>())
-            .put(key, start + 1, length - 1, newValue);
+        final V oldValue = getOrCreateNext(key.charAt(start)).put(key, start + 1, length - 1, newValue);
         if (oldValue == null) {
             size++;
         }
         return oldValue;
     }
 
+    private SymbolMap<V> getOrCreateNext(char c) {
+        if (c < ASCII_SIZE) {
+            SymbolMap<V> next = asciiSubMaps[c];
+            if (next == null) {
+                asciiSubMaps[c] = next = new SymbolMap<>();
+            }
+            return next;
+        }
+        if (otherSubMaps == null) {
+            otherSubMaps = new HashMap<>();
+        }
+        return otherSubMaps.computeIfAbsent(c, k -> new SymbolMap<>());
+    }
+
     public SymbolMap<V> getNext(char c) {
-        return subMaps.get(c);
+        if (c < ASCII_SIZE) {
+            return asciiSubMaps[c];
+        }
+        return otherSubMaps != null ? otherSubMaps.get(c) : null;
     }
 
     public V getValue() {
@@ -0,0 +1,172 @@
+package glang.launcher;
+
+import glang.compiler.bytecode.GlangCompiler;
+import glang.compiler.error.CompileFailedException;
+import glang.runtime.cl.PrecompiledIndex;
+import org.objectweb.asm.ClassWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+
+/**
+ * Compiles every {@code .glang} file under a source root in parallel, writing the classes and a
+ * {@link PrecompiledIndex} to a jar or a directory.
+ */
+final class ProjectCompiler {
+    private final Path sourceRoot;
+    private final Path output;
+
+    ProjectCompiler(Path sourceRoot, Path output) {
+        this.sourceRoot = sourceRoot;
+        this.output = output;
+    }
+
+    /**
+     * @return Whether every file compiled successfully. Nothing is written if any fail.
+     */
+    boolean compileAll() throws IOException, InterruptedException {
+        final List<Path> sources;
+        try (Stream<Path> files = Files.walk(sourceRoot)) {
+            sources = files
+                .filter(p -> p.toString().endsWith(".glang") && Files.isRegularFile(p))
+                .sorted()
+                .toList();
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool();
+        final List<CompiledNamespace> results;
+        try {
+            results = pool.submit(() -> sources.parallelStream().map(this::compile).toList()).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        boolean failed = false;
+        for (final CompiledNamespace result : results) {
+            if (result.error != null) {
+                System.err.println(result.sourcePath + ":");
+                System.err.println(result.error.getMessage());
+                failed = true;
+            }
+        }
+        if (failed) {
+            return false;
+        }
+
+        final Map<String, byte[]> classes = new TreeMap<>();
+        final Map<String, String> index = new TreeMap<>();
+        for (final CompiledNamespace result : results) {
+            result.classes.forEach((name, bytes) -> {
+                classes.put(name.replace('.', '/') + ".class", bytes);
+                index.put(name, result.sourceHash);
+            });
+        }
+        if (output.getFileName().toString().endsWith(".jar")) {
+            writeJar(classes, index);
+        } else {
+            writeDirectory(classes, index);
+        }
+        return true;
+    }
+
+    private CompiledNamespace compile(Path sourcePath) {
+        final String relativePath = sourceRoot
+            .relativize(sourcePath)
+            .toString()
+            .replace(FileSystems.getDefault().getSeparator(), "/");
+        // Mapped rather than read, since generated sources can be large, and the tokenizer streams it anyway
+        final ByteBuffer source;
+        try (FileChannel channel = FileChannel.open(sourcePath)) {
+            source = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final Map<String, ClassWriter> writers = new HashMap<>();
+        final GlangCompiler compiler;
+        try {
+            compiler = new GlangCompiler(
+                relativePath.substring(0, relativePath.length() - 6).replace('/', '.'),
+                source,
+                name -> writers.computeIfAbsent(name, n -> new ClassWriter(ClassWriter.COMPUTE_FRAMES))
+            );
+            compiler.compile(relativePath.substring(relativePath.lastIndexOf('/') + 1));
+            compiler.getErrorCollector().throwIfFailed();
+        } catch (CompileFailedException e) {
+            return new CompiledNamespace(relativePath, null, null, e);
+        }
+        final Map<String, byte[]> classes = new HashMap<>();
+        writers.forEach((name, writer) -> classes.put(name, writer.toByteArray()));
+        return new CompiledNamespace(
+            relativePath, PrecompiledIndex.hashSource(source, compiler.arithmeticMode()), classes, null
+        );
+    }
+
+    private void writeJar(Map<String, byte[]> classes, Map<String, String> index) throws IOException {
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        final Path parent = output.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (JarOutputStream jos = new JarOutputStream(Files.newOutputStream(output), manifest)) {
+            final Set<String> directories = new HashSet<>();
+            for (final var entry : classes.entrySet()) {
+                addParentDirectories(jos, directories, entry.getKey());
+                jos.putNextEntry(new JarEntry(entry.getKey()));
+                jos.write(entry.getValue());
+                jos.closeEntry();
+            }
+            addParentDirectories(jos, directories, PrecompiledIndex.PATH);
+            jos.putNextEntry(new JarEntry(PrecompiledIndex.PATH));
+            PrecompiledIndex.write(jos, index);
+            jos.closeEntry();
+        }
+    }
+
+    private static void addParentDirectories(JarOutputStream jos, Set<String> added, String path) throws IOException {
+        final int slash = path.lastIndexOf('/');
+        if (slash == -1) return;
+        final String directory = path.substring(0, slash + 1);
+        if (directory.equals("META-INF/") || !added.add(directory)) return;
+        addParentDirectories(jos, added, directory.substring(0, slash));
+        jos.putNextEntry(new JarEntry(directory));
+        jos.closeEntry();
+    }
+
+    private void writeDirectory(Map<String, byte[]> classes, Map<String, String> index) throws IOException {
+        for (final var entry : classes.entrySet()) {
+            final Path path = output.resolve(entry.getKey());
+            Files.createDirectories(path.getParent());
+            Files.write(path, entry.getValue());
+        }
+        final Path indexPath = output.resolve(PrecompiledIndex.PATH);
+        Files.createDirectories(indexPath.getParent());
+        try (OutputStream os = Files.newOutputStream(indexPath)) {
+            PrecompiledIndex.write(os, index);
+        }
+    }
+
+    private record CompiledNamespace(
+        String sourcePath, String sourceHash, Map<String, byte[]> classes, CompileFailedException error
+    ) {
+    }
+}
@@ -20,12 +20,32 @@ public class ScriptLauncher {
 
         if (args.length == 0) {
             System.err.println("Usage: java -jar " + jarFile + " [--compile] <script> [args...]");
+            System.err.println("       java -jar " + jarFile + " --compile-all <source root> <output jar or dir>");
             System.exit(1);
             return;
         }
 
         final Deque<String> arguments = new ArrayDeque<>(List.of(args));
 
+        if (arguments.element().equals("--compile-all")) {
+            arguments.remove();
+            if (arguments.size() != 2) {
+                System.err.println("Usage: java -jar " + jarFile + " --compile-all <source root> <output jar or dir>");
+                System.exit(1);
+                return;
+            }
+            final Path sourceRoot = Path.of(arguments.removeFirst()).toAbsolutePath().normalize();
+            if (!Files.isDirectory(sourceRoot)) {
+                System.err.println("Source root is not a directory: " + sourceRoot);
+                System.exit(1);
+                return;
+            }
+            if (!new ProjectCompiler(sourceRoot, Path.of(arguments.removeFirst())).compileAll()) {
+                System.exit(1);
+            }
+            return;
+        }
+
         final boolean compileOnly = arguments.element().equals("--compile");
         if (compileOnly) {
             arguments.remove();
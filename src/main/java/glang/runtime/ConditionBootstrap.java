@@ -0,0 +1,158 @@
+package glang.runtime;
+
+import glang.runtime.lookup.InstanceMethodLookup;
+import glang.runtime.lookup.MethodLookup;
+
+import java.lang.invoke.*;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public final class ConditionBootstrap {
+    private static final MethodType IS_TRUTHY_MT = MethodType.methodType(boolean.class, Object.class);
+
+    private static final MethodHandle IS_TRUTHY;
+    private static final MethodHandle ALWAYS_TRUE = MethodHandles.dropArguments(
+        MethodHandles.constant(boolean.class, true), 0, Object.class
+    );
+    private static final MethodHandle ALWAYS_FALSE = MethodHandles.dropArguments(
+        MethodHandles.constant(boolean.class, false), 0, Object.class
+    );
+
+    /**
+     * Truthiness for the classes {@link GlangRuntime#isTruthy} handles itself, or {@code null} for other classes.
+     */
+    private static final ClassValue<MethodHandle> BUILTIN_TRUTHINESS = new ClassValue<>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            final String name;
+            final Class<?> paramType;
+            if (type == Boolean.class) {
+                name = "booleanTruthy";
+                paramType = Boolean.class;
+            } else if (type == Integer.class) {
+                name = "intTruthy";
+                paramType = Integer.class;
+            } else if (type == Long.class) {
+                name = "longTruthy";
+                paramType = Long.class;
+            } else if (BigInteger.class.isAssignableFrom(type)) {
+                name = "bigIntegerTruthy";
+                paramType = BigInteger.class;
+            } else if (Number.class.isAssignableFrom(type)) {
+                name = "numberTruthy";
+                paramType = Number.class;
+            } else if (type == String.class) {
+                name = "stringTruthy";
+                paramType = String.class;
+            } else if (Collection.class.isAssignableFrom(type)) {
+                name = "collectionTruthy";
+                paramType = Collection.class;
+            } else if (Map.class.isAssignableFrom(type)) {
+                name = "mapTruthy";
+                paramType = Map.class;
+            } else {
+                return null;
+            }
+            try {
+                return MethodHandles.lookup()
+                    .findStatic(ConditionBootstrap.class, name, MethodType.methodType(boolean.class, paramType))
+                    .asType(IS_TRUTHY_MT);
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    };
+
+    static {
+        try {
+            IS_TRUTHY = MethodHandles.lookup().findStatic(GlangRuntime.class, "isTruthy", IS_TRUTHY_MT);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private ConditionBootstrap() {
+    }
+
+    public static CallSite isTruthy(MethodHandles.Lookup lookup, String name, MethodType type) {
+        if (!type.equals(IS_TRUTHY_MT)) {
+            throw new IllegalArgumentException("isTruthy type != " + IS_TRUTHY_MT);
+        }
+        return new TruthyCallSite(type);
+    }
+
+    private static final class TruthyCallSite extends InlineCacheCallSite {
+        TruthyCallSite(MethodType type) {
+            super(type);
+        }
+
+        @Override
+        protected CacheEntry link(Object[] args) throws Throwable {
+            final Object obj = args[0];
+            if (obj == null) {
+                return new CacheEntry(guardClass(0, null), ALWAYS_FALSE);
+            }
+            final MethodHandle builtin = BUILTIN_TRUTHINESS.get(obj.getClass());
+            if (builtin != null) {
+                return new CacheEntry(guardClass(0, obj), builtin);
+            }
+
+            final boolean isClass = obj instanceof Class<?>;
+            final InstanceMethodLookup methods = InstanceMethodLookup.get(
+                isClass ? (Class<?>)obj : obj.getClass(), isClass
+            );
+            final SwitchPoint switchPoint = methods.getExtensionSwitchPoint("booleanValue");
+            final MethodLookup booleanValue = methods.findLookup("booleanValue", false);
+            final MethodHandle guard = isClass ? guardIdentity(0, obj) : guardClass(0, obj);
+            if (booleanValue == null) {
+                return new CacheEntry(guard, ALWAYS_TRUE, switchPoint);
+            }
+            final MethodHandle invoker = booleanValue.getInvoker(List.of(obj.getClass()));
+            return new CacheEntry(
+                guard,
+                invoker.asType(MethodType.genericMethodType(1)).asType(type()),
+                switchPoint
+            );
+        }
+
+        @Override
+        protected MethodHandle megamorphic() {
+            return IS_TRUTHY;
+        }
+    }
+
+    private static boolean booleanTruthy(Boolean b) {
+        return b;
+    }
+
+    private static boolean intTruthy(Integer i) {
+        return i != 0;
+    }
+
+    private static boolean longTruthy(Long l) {
+        return l != 0L;
+    }
+
+    private static boolean bigIntegerTruthy(BigInteger i) {
+        return i.signum() != 0;
+    }
+
+    private static boolean numberTruthy(Number n) {
+        final double dValue = n.doubleValue();
+        return dValue != 0.0 && !Double.isNaN(dValue);
+    }
+
+    private static boolean stringTruthy(String s) {
+        return !s.isEmpty();
+    }
+
+    private static boolean collectionTruthy(Collection<?> c) {
+        return !c.isEmpty();
+    }
+
+    private static boolean mapTruthy(Map<?, ?> m) {
+        return !m.isEmpty();
+    }
+}
@@ -1,15 +1,19 @@
 package glang.runtime;
 
 import glang.BuiltinsNs;
+import glang.util.CacheDirectory;
 
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class DefaultImports {
     private static final List<Class<?>> INIT_WITH = List.of(
         BuiltinsNs.class
     );
+    private static final Object MISSING = new Object();
 
     private static volatile Map<String, Object> defaultImports;
 
@@ -28,20 +32,99 @@ public final class DefaultImports {
     }
 
     private static Map<String, Object> findDefaultImports() {
-        final Map<String, Object> result = new LinkedHashMap<>();
-        for (final String inLang : JdkPackageLister.listJavaLang()) {
-            try {
-                result.put(
-                    inLang.substring(inLang.lastIndexOf('.') + 1),
-                    Class.forName(inLang, false, null) // null --> bootstrap CL, which java.lang is on
-                );
-            } catch (ClassNotFoundException e) {
-                throw new AssertionError("Missing java.lang class on the bootstrap CL?", e);
-            }
+        final Map<String, String> javaLang = new HashMap<>();
+        for (final String inLang : listJavaLang()) {
+            javaLang.put(inLang.substring(inLang.lastIndexOf('.') + 1), inLang);
         }
+        final Map<String, Object> eager = new LinkedHashMap<>();
         for (final Class<?> initWith : INIT_WITH) {
-            result.putAll(GlangRuntime.collectStarImport(initWith));
+            eager.putAll(GlangRuntime.collectStarImport(initWith));
+        }
+        return new DefaultImportsMap(javaLang, eager);
+    }
+
+    /**
+     * Listing java.lang means reading every class header in the jrt filesystem, so the result is cached per JDK.
+     */
+    private static List<String> listJavaLang() {
+        final Path cacheDir = CacheDirectory.get();
+        if (cacheDir == null) {
+            return JdkPackageLister.listJavaLang();
+        }
+        final String javaHomeHash = Integer.toHexString(System.getProperty("java.home", "").hashCode());
+        final Path cacheFile = cacheDir.resolve("jdk").resolve(
+            "java.lang-" + System.getProperty("java.version") + '-' + javaHomeHash + ".txt"
+        );
+        try {
+            return Files.readAllLines(cacheFile, StandardCharsets.UTF_8);
+        } catch (IOException ignored) {
+        }
+        final List<String> result = JdkPackageLister.listJavaLang();
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            final Path tempFile = Files.createTempFile(cacheFile.getParent(), "java.lang", ".tmp");
+            try {
+                Files.write(tempFile, result, StandardCharsets.UTF_8);
+                Files.move(tempFile, cacheFile, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException ignored) {
         }
         return result;
     }
+
+    /**
+     * Resolves java.lang classes as they're requested, rather than loading all of them up front.
+     */
+    private static final class DefaultImportsMap extends AbstractMap<String, Object> {
+        private final Map<String, String> javaLang;
+        private final Map<String, Object> eager;
+        private final Map<String, Object> resolved = new ConcurrentHashMap<>();
+
+        DefaultImportsMap(Map<String, String> javaLang, Map<String, Object> eager) {
+            this.javaLang = javaLang;
+            this.eager = eager;
+        }
+
+        @Override
+        public Object get(Object key) {
+            if (eager.containsKey(key)) {
+                return eager.get(key);
+            }
+            final Object result = resolve(key);
+            return result != MISSING ? result : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return eager.containsKey(key) || resolve(key) != MISSING;
+        }
+
+        private Object resolve(Object key) {
+            if (!(key instanceof String name) || !javaLang.containsKey(name)) {
+                return MISSING;
+            }
+            return resolved.computeIfAbsent(name, k -> {
+                try {
+                    return Class.forName(javaLang.get(k), false, null); // null --> bootstrap CL, which java.lang is on
+                } catch (ClassNotFoundException e) {
+                    return MISSING; // Stale cache
+                }
+            });
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            final Map<String, Object> result = new LinkedHashMap<>();
+            for (final String name : javaLang.keySet()) {
+                final Object value = resolve(name);
+                if (value != MISSING) {
+                    result.put(name, value);
+                }
+            }
+            result.putAll(eager);
+            return Collections.unmodifiableMap(result).entrySet();
+        }
+    }
 }
@@ -0,0 +1,98 @@
+package glang.runtime;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * The members a star import of a class brings in. It's built with reflection once per class, and then shared by
+ * every namespace that star imports the class, along with the {@code MethodLookup}s in it and the invokers they've
+ * linked. Only static final primitives and Strings are read when the table is built. Other static fields, including
+ * finals such as {@code System.out}, can change, so they're read each time the class is star imported.
+ */
+final class ExportTable {
+    private static final ClassValue<ExportTable> TABLES = new ClassValue<>() {
+        @Override
+        protected ExportTable computeValue(Class<?> type) {
+            return new ExportTable(type);
+        }
+    };
+
+    // Static fields that can change are kept as a StaticField, and replaced with their value when exported
+    private final Map<String, Object> exports;
+    private final boolean hasStaticFields;
+
+    private ExportTable(Class<?> clazz) {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        final int publicStatic = Modifier.PUBLIC | Modifier.STATIC;
+
+        final Set<String> fieldNames = new HashSet<>();
+        for (final Field field : clazz.getDeclaredFields()) {
+            if ((field.getModifiers() & publicStatic) != publicStatic) continue;
+            fieldNames.add(field.getName());
+            final Class<?> type = field.getType();
+            if (Modifier.isFinal(field.getModifiers()) && (type.isPrimitive() || type == String.class)) {
+                result.put(field.getName(), readField(field));
+            } else {
+                result.put(field.getName(), new StaticField(field));
+            }
+        }
+
+        final Set<String> methodNames = new HashSet<>();
+        for (final Method method : clazz.getDeclaredMethods()) {
+            if ((method.getModifiers() & publicStatic) != publicStatic) continue;
+            if (fieldNames.contains(method.getName())) {
+                result.remove(method.getName()); // Duplicate names aren't exported at all, to resolve ambiguous imports
+                continue;
+            }
+            if (methodNames.add(method.getName())) {
+                result.put(method.getName(), GlangRuntime.getStaticMethod(clazz, method.getName()));
+            }
+        }
+
+        for (final Class<?> nestMember : clazz.getNestMembers()) {
+            if (!Modifier.isPublic(nestMember.getModifiers()) || nestMember.getDeclaringClass() != clazz) continue;
+            final String simpleName = nestMember.getSimpleName();
+            if (fieldNames.contains(simpleName) || methodNames.contains(simpleName)) {
+                result.remove(simpleName);
+                continue;
+            }
+            result.put(simpleName, nestMember);
+        }
+
+        exports = Collections.unmodifiableMap(result);
+        hasStaticFields = result.values().stream().anyMatch(StaticField.class::isInstance);
+    }
+
+    static ExportTable get(Class<?> clazz) {
+        return TABLES.get(clazz);
+    }
+
+    /**
+     * @return The exported members, with the current values of static fields
+     */
+    Map<String, Object> asMap() {
+        if (!hasStaticFields) {
+            return exports;
+        }
+        final Map<String, Object> result = new LinkedHashMap<>(exports);
+        result.replaceAll((name, value) -> value instanceof StaticField field ? readField(field.field) : value);
+        return Collections.unmodifiableMap(result);
+    }
+
+    void exportTo(Map<String, Object> destination) {
+        destination.putAll(asMap());
+    }
+
+    private static Object readField(Field field) {
+        try {
+            return field.get(null);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Failed to access public field " + field.getName(), e);
+        }
+    }
+
+    private record StaticField(Field field) {
+    }
+}
@@ -0,0 +1,115 @@
+package glang.runtime;
+
+import glang.runtime.lookup.FieldLookup;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+public final class FieldBootstrap {
+    private static final MethodType GET_FIELD_MT = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SET_FIELD_MT = MethodType.methodType(Object.class, Object.class, Object.class);
+
+    private static final MethodHandle GET_FIELD;
+    private static final MethodHandle SET_FIELD;
+    private static final MethodHandle RETURN_VALUE = MethodHandles.dropArguments(
+        MethodHandles.identity(Object.class), 0, Object.class
+    );
+
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            GET_FIELD = lookup.findStatic(
+                GlangRuntime.class, "getField",
+                MethodType.methodType(Object.class, Object.class, String.class)
+            );
+            SET_FIELD = lookup.findStatic(
+                GlangRuntime.class, "setField",
+                MethodType.methodType(Object.class, Object.class, String.class, Object.class)
+            );
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private FieldBootstrap() {
+    }
+
+    public static CallSite getField(MethodHandles.Lookup lookup, String name, MethodType type, String fieldName) {
+        if (!type.equals(GET_FIELD_MT)) {
+            throw new IllegalArgumentException("getField type != " + GET_FIELD_MT);
+        }
+        return new GetFieldCallSite(type, fieldName);
+    }
+
+    public static CallSite setField(MethodHandles.Lookup lookup, String name, MethodType type, String fieldName) {
+        if (!type.equals(SET_FIELD_MT)) {
+            throw new IllegalArgumentException("setField type != " + SET_FIELD_MT);
+        }
+        return new SetFieldCallSite(type, fieldName);
+    }
+
+    private static final class GetFieldCallSite extends InlineCacheCallSite {
+        private final String fieldName;
+
+        GetFieldCallSite(MethodType type, String fieldName) {
+            super(type);
+            this.fieldName = fieldName;
+        }
+
+        @Override
+        protected CacheEntry link(Object[] args) throws Throwable {
+            final Object obj = args[0];
+            if (obj == null) {
+                throw new NullPointerException("Cannot get field '" + fieldName + "' on null");
+            }
+            final FieldLookup.ResolvedField field = GlangRuntime.getFieldLookup(obj).getField(fieldName);
+            if (obj instanceof Class<?>) {
+                MethodHandle getter = field.getter();
+                final Class<?> fieldType = getter.type().returnType();
+                if (field.setter() == null && (fieldType.isPrimitive() || fieldType == String.class)) {
+                    // A static final constant. Other finals, such as System.out, can still be changed.
+                    getter = MethodHandles.dropArguments(
+                        MethodHandles.constant(Object.class, getter.invoke(obj)), 0, Object.class
+                    );
+                }
+                return new CacheEntry(guardIdentity(0, obj), getter.asType(type()));
+            }
+            return new CacheEntry(guardClass(0, obj), field.getter().asType(type()));
+        }
+
+        @Override
+        protected MethodHandle megamorphic() {
+            return MethodHandles.insertArguments(GET_FIELD, 1, fieldName);
+        }
+    }
+
+    private static final class SetFieldCallSite extends InlineCacheCallSite {
+        private final String fieldName;
+
+        SetFieldCallSite(MethodType type, String fieldName) {
+            super(type);
+            this.fieldName = fieldName;
+        }
+
+        @Override
+        protected CacheEntry link(Object[] args) throws Throwable {
+            final Object obj = args[0];
+            if (obj == null) {
+                throw new NullPointerException("Cannot set field '" + fieldName + "' on null");
+            }
+            final MethodHandle setter = GlangRuntime.getFieldLookup(obj).getSetter(fieldName)
+                .asType(type().changeReturnType(void.class));
+            return new CacheEntry(
+                obj instanceof Class<?> ? guardIdentity(0, obj) : guardClass(0, obj),
+                MethodHandles.foldArguments(RETURN_VALUE, setter)
+            );
+        }
+
+        @Override
+        protected MethodHandle megamorphic() {
+            return MethodHandles.insertArguments(SET_FIELD, 1, fieldName);
+        }
+    }
+}
@@ -1,13 +1,11 @@
 package glang.runtime;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.CaffeineSpec;
-import com.github.benmanes.caffeine.cache.LoadingCache;
-import glang.compiler.bytecode.GlangCompiler;
 import glang.exception.AmbiguousImportException;
 import glang.exception.ImportNotFoundException;
 import glang.exception.UninvokableObjectException;
 import glang.exception.UnknownGlobalException;
+import glang.runtime.extension.ExtensionMethodRegistry;
+import glang.runtime.lookup.ClassMetadata;
 import glang.runtime.lookup.FieldLookup;
 import glang.runtime.lookup.InstanceMethodLookup;
 import glang.runtime.lookup.MethodLookup;
@@ -23,6 +21,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.math.BigInteger;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class GlangRuntime {
     private static final MethodType IMPORT_STAR_MT = MethodType.methodType(void.class, Map.class);
@@ -33,11 +32,17 @@ public final class GlangRuntime {
     private static final MethodType DO_IMPORT_0_MT = MethodType.methodType(
         Object.class, MethodHandles.Lookup.class, List.class, String.class
     );
+    private static final Object NOT_FOUND = new Object();
 
-    private static final LoadingCache<Class<?>, SimpleMethodLookup<Constructor<?>>> CONSTRUCTOR_CACHE =
-        Caffeine.from(CaffeineSpec.parse(System.getProperty(
-            "glang.constructorLookup.cacheSpec", "softValues"
-        ))).build(clazz -> new SimpleMethodLookup<>(clazz, MethodLookup.Unreflector.CONSTRUCTOR));
+    /**
+     * Static methods are shared by every import of them, so that call sites linked against one stay valid.
+     */
+    private static final ClassValue<Map<String, MethodLookup>> STATIC_METHODS = new ClassValue<>() {
+        @Override
+        protected Map<String, MethodLookup> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
 
     private GlangRuntime() {
     }
@@ -60,11 +65,15 @@ public final class GlangRuntime {
     }
 
     @SuppressWarnings("unchecked")
-    public static <T> SimpleMethodLookup<Constructor<T>> findConstructors(Class<T> clazz) {
-        return (SimpleMethodLookup<Constructor<T>>)(SimpleMethodLookup<?>)CONSTRUCTOR_CACHE.get(clazz);
+    public static <T> SimpleMethodLookup<Constructor<T>> findConstructors(Class<T> clazz) throws NoSuchMethodException {
+        return (SimpleMethodLookup<Constructor<T>>)(SimpleMethodLookup<?>)ClassMetadata.get(clazz).getConstructors();
     }
 
     public static Object invokeObject(Object target, List<Object> args) throws Throwable {
+        return invokeObject(target, args.toArray());
+    }
+
+    public static Object invokeObject(Object target, Object... args) throws Throwable {
         if (target == null) {
             throw new NullPointerException("null is not invokable");
         }
@@ -77,54 +86,11 @@ public final class GlangRuntime {
         throw new UninvokableObjectException("Cannot invoke object of type " + target.getClass().getName());
     }
 
-    public static Object invokeObject(Object target, Object... args) throws Throwable {
-        return invokeObject(target, List.of(args));
-    }
-
+    /**
+     * The members a star import of {@code clazz} imports, which is computed once per class.
+     */
     public static Map<String, Object> collectStarImport(Class<?> clazz) {
-        final Map<String, Object> result = new LinkedHashMap<>();
-        final int publicStatic = Modifier.PUBLIC | Modifier.STATIC;
-
-        final Set<String> fieldNames = new HashSet<>();
-        for (final Field field : clazz.getDeclaredFields()) {
-            if ((field.getModifiers() & publicStatic) != publicStatic) continue;
-            fieldNames.add(field.getName());
-            try {
-                result.put(field.getName(), field.get(null));
-            } catch (IllegalAccessException e) {
-                throw new RuntimeException("Failed to access public field " + field.getName(), e);
-            }
-        }
-
-        final Set<String> methodNames = new HashSet<>();
-        for (final Method method : clazz.getDeclaredMethods()) {
-            if ((method.getModifiers() & publicStatic) != publicStatic) continue;
-            if (fieldNames.contains(method.getName())) {
-                result.remove(method.getName()); // Duplicate names aren't exported at all, to resolve ambiguous imports
-                continue;
-            }
-            if (methodNames.add(method.getName())) {
-                try {
-                    result.put(method.getName(), new SimpleMethodLookup<>(
-                        clazz, MethodLookup.Unreflector.method(method.getName(), true, false)
-                    ));
-                } catch (NoSuchMethodException e) {
-                    throw new RuntimeException(clazz + " doesn't contain public method " + method.getName());
-                }
-            }
-        }
-
-        for (final Class<?> nestMember : clazz.getNestMembers()) {
-            if (!Modifier.isPublic(nestMember.getModifiers()) || nestMember.getDeclaringClass() != clazz) continue;
-            final String simpleName = nestMember.getSimpleName();
-            if (fieldNames.contains(simpleName) || methodNames.contains(simpleName)) {
-                result.remove(simpleName);
-                continue;
-            }
-            result.put(simpleName, nestMember);
-        }
-
-        return result;
+        return ExportTable.get(clazz).asMap();
     }
 
     public static Class<?> getClass(Object obj) {
@@ -149,9 +115,29 @@ public final class GlangRuntime {
     }
 
     public static Object binaryOperator(Object lhs, Object rhs, String opName) throws Throwable {
-        return getInstanceMethod(lhs, opName, false)
-            .getInvoker(List.of(getClass(lhs), getClass(rhs)))
-            .invoke(lhs, rhs);
+        final MethodLookup lookup = getInstanceMethod(lhs, opName, false);
+        final Class<?> lhsClass = getClass(lhs);
+        final Class<?> rhsClass = getClass(rhs);
+        final MethodLookup.CachedInvoker cached = lookup.findCachedInvoker(
+            MethodLookup.hashArgType(MethodLookup.hashArgType(2, lhsClass), rhsClass)
+        );
+        if (cached != null && cached.argCount() == 2 && cached.matchesArg(0, lhsClass) && cached.matchesArg(1, rhsClass)) {
+            return cached.invoker().invoke(lhs, rhs);
+        }
+        return lookup.resolveInvoker(new Class<?>[] {lhsClass, rhsClass}).invoke(lhs, rhs);
+    }
+
+    /**
+     * {@link #binaryOperator} for namespaces using {@code ArithmeticMode.PROMOTING}.
+     */
+    public static Object promotingBinaryOperator(Object lhs, Object rhs, String opName) throws Throwable {
+        if (lhs != null && ExtensionMethodRegistry.REGISTRY.hasDefaultExtensions(lhs.getClass(), opName)) {
+            final Object result = PromotingArithmetic.invoke(lhs, rhs, opName);
+            if (result != PromotingArithmetic.NOT_HANDLED) {
+                return result;
+            }
+        }
+        return binaryOperator(lhs, rhs, opName);
     }
 
     public static FieldLookup getFieldLookup(Object obj) {
@@ -202,13 +188,13 @@ public final class GlangRuntime {
         if (obj instanceof Map<?, ?> m) {
             return !m.isEmpty();
         }
-        final MethodLookup booleanValue;
-        try {
-            booleanValue = getInstanceMethod(obj, "booleanValue");
-        } catch (NoSuchMethodException e) {
+        final boolean isClass = obj instanceof Class<?>;
+        final MethodLookup booleanValue = InstanceMethodLookup.get(isClass ? (Class<?>)obj : obj.getClass(), isClass)
+            .findLookup("booleanValue", false);
+        if (booleanValue == null) {
             return true;
         }
-        return (boolean)booleanValue.invoke();
+        return (boolean)booleanValue.invoke(new Object[] {obj});
     }
 
     public static Boolean isTruthyW(Object obj) throws Throwable {
@@ -234,24 +220,22 @@ public final class GlangRuntime {
     public static void importStar0(
         MethodHandles.Lookup lookup, List<String> path, Map<String, Object> destination
     ) throws ImportNotFoundException {
-        destination.putAll(collectStarImport(findImportStarClass(lookup, path)));
+        ExportTable.get(findImportStarClass(lookup, path)).exportTo(destination);
     }
 
     private static Class<?> findImportStarClass(MethodHandles.Lookup lookup, List<String> path) throws ImportNotFoundException {
-        try {
-            return findClassForImport(lookup, String.join(".", path));
-        } catch (Exception ignored) {
+        final ImportResolver resolver = ImportResolver.get(lookup);
+        Class<?> result = resolver.findClass(lookup, String.join(".", path));
+        for (int i = path.size() - 2; result == null && i >= 0; i--) {
+            result = resolver.findClass(lookup,
+                String.join(".", path.subList(0, i)) + "." +
+                    String.join("$", path.subList(i, path.size()))
+            );
         }
-        for (int i = path.size() - 2; i >= 0; i--) {
-            try {
-                return findClassForImport(lookup,
-                    String.join(".", path.subList(0, i)) + "." +
-                        String.join("$", path.subList(i, path.size()))
-                );
-            } catch (Exception ignored) {
-            }
+        if (result == null) {
+            throw new ImportNotFoundException(path, null, null);
         }
-        throw new ImportNotFoundException(path, null, null);
+        return result;
     }
 
     public static CallSite doImport(
@@ -267,50 +251,50 @@ public final class GlangRuntime {
     }
 
     public static Object doImport0(MethodHandles.Lookup lookup, List<String> path, String target) throws ImportNotFoundException {
+        final ImportResolver resolver = ImportResolver.get(lookup);
         if (path.isEmpty()) {
-            try {
-                return findClassForImport(lookup, target);
-            } catch (Exception e) {
+            final Class<?> result = resolver.findClass(lookup, target);
+            if (result == null) {
                 throw new ImportNotFoundException(path, target, null);
             }
+            return result;
         }
         String joined = String.join(".", path);
-        try {
-            return findClassForImport(lookup, joined + "." + target);
-        } catch (Exception ignored) {
-        }
-        try {
-            return findClassForImport(lookup, joined + "$" + target);
-        } catch (Exception ignored) {
-        }
-        //noinspection CatchMayIgnoreException
-        try {
-            return findImport(findClassForImport(lookup, joined), target, path);
-        } catch (Exception e) {
-            if (e instanceof AmbiguousImportException aie) {
-                throw aie;
-            }
+        Class<?> clazz = resolver.findClass(lookup, joined + "." + target);
+        if (clazz != null) {
+            return clazz;
+        }
+        clazz = resolver.findClass(lookup, joined + "$" + target);
+        if (clazz != null) {
+            return clazz;
+        }
+        Object result = findImport(resolver.findClass(lookup, joined), target, path);
+        if (result != NOT_FOUND) {
+            return result;
         }
         for (int i = path.size() - 2; i > 0; i--) {
             joined = String.join(".", path.subList(0, i)) + "." +
                 String.join("$", path.subList(i, path.size()));
-            try {
-                return findClassForImport(lookup, joined + "$" + target);
-            } catch (Exception ignored) {
+            clazz = resolver.findClass(lookup, joined + "$" + target);
+            if (clazz != null) {
+                return clazz;
             }
-            //noinspection CatchMayIgnoreException
-            try {
-                return findImport(findClassForImport(lookup, joined), target, path);
-            } catch (Exception e) {
-                if (e instanceof AmbiguousImportException aie) {
-                    throw aie;
-                }
+            result = findImport(resolver.findClass(lookup, joined), target, path);
+            if (result != NOT_FOUND) {
+                return result;
             }
         }
         throw new ImportNotFoundException(path, target, null);
     }
 
-    private static Object findImport(Class<?> clazz, String name, List<String> path) throws ImportNotFoundException {
+    /**
+     * @return The member of {@code clazz} called {@code name}, or {@link #NOT_FOUND} if there isn't one (or
+     * {@code clazz} is {@code null})
+     */
+    private static Object findImport(Class<?> clazz, String name, List<String> path) throws AmbiguousImportException {
+        if (clazz == null) {
+            return NOT_FOUND;
+        }
         boolean found = false;
         Object result = null;
         final int publicStatic = Modifier.PUBLIC | Modifier.STATIC;
@@ -331,15 +315,9 @@ public final class GlangRuntime {
             if (found) {
                 throw new AmbiguousImportException(path, name);
             }
-            try {
-                result = new SimpleMethodLookup<>(
-                    clazz, MethodLookup.Unreflector.method(method.getName(), true, false)
-                );
-                found = true;
-                break;
-            } catch (NoSuchMethodException e) {
-                throw new RuntimeException(clazz + " doesn't contain public method " + method.getName());
-            }
+            result = getStaticMethod(clazz, method.getName());
+            found = true;
+            break;
         }
 
         for (final Class<?> nestMember : clazz.getNestMembers()) {
@@ -356,18 +334,16 @@ public final class GlangRuntime {
             break;
         }
 
-        if (!found) {
-            throw new ImportNotFoundException(path, name, null);
-        }
-
-        return result;
+        return found ? result : NOT_FOUND;
     }
 
-    private static Class<?> findClassForImport(MethodHandles.Lookup lookup, String name) throws Exception {
-        try {
-            return lookup.findClass(name);
-        } catch (Exception e) {
-            return lookup.findClass(GlangCompiler.namespacePathToClassName(name));
-        }
+    static MethodLookup getStaticMethod(Class<?> clazz, String name) {
+        return STATIC_METHODS.get(clazz).computeIfAbsent(name, key -> {
+            try {
+                return new SimpleMethodLookup<>(clazz, MethodLookup.Unreflector.method(key, true, false));
+            } catch (NoSuchMethodException e) {
+                throw new RuntimeException(clazz + " doesn't contain public method " + key);
+            }
+        });
     }
 }
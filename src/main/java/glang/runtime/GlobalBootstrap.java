@@ -0,0 +1,73 @@
+package glang.runtime;
+
+import java.lang.invoke.*;
+import java.util.Map;
+
+public final class GlobalBootstrap {
+    private static final MethodType GET_GLOBAL_MT = MethodType.methodType(Object.class, Map.class);
+    private static final int MAX_RELINKS = Integer.getInteger("glang.invoke.maxGlobalRelinks", 8);
+
+    private static final MethodHandle FALLBACK;
+    private static final MethodHandle GET_GLOBAL;
+
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            FALLBACK = lookup.findVirtual(GlobalCallSite.class, "fallback", GET_GLOBAL_MT);
+            GET_GLOBAL = lookup.findStatic(
+                GlangRuntime.class, "getGlobal",
+                MethodType.methodType(Object.class, Map.class, String.class)
+            );
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private GlobalBootstrap() {
+    }
+
+    /**
+     * Reads a global that has no slot, usually a default import. Since such a global can only change through
+     * {@link GlobalsMap#put}, the value is cached until that global is modified.
+     */
+    public static CallSite getGlobal(MethodHandles.Lookup lookup, String name, MethodType type, String globalName) {
+        if (!type.equals(GET_GLOBAL_MT)) {
+            throw new IllegalArgumentException("getGlobal type != " + GET_GLOBAL_MT);
+        }
+        return new GlobalCallSite(type, globalName);
+    }
+
+    private static final class GlobalCallSite extends MutableCallSite {
+        private final String globalName;
+        private final MethodHandle fallback;
+        private int relinks;
+
+        GlobalCallSite(MethodType type, String globalName) {
+            super(type);
+            this.globalName = globalName;
+            fallback = FALLBACK.bindTo(this);
+            setTarget(fallback);
+        }
+
+        private Object fallback(Map<String, Object> globals) {
+            if (!(globals instanceof GlobalsMap globalsMap)) {
+                setTarget(MethodHandles.insertArguments(GET_GLOBAL, 1, globalName));
+                return GlangRuntime.getGlobal(globals, globalName);
+            }
+            // Grab the SwitchPoint first, so that a concurrent modification can't be missed
+            final SwitchPoint switchPoint = globalsMap.getDynamicSwitchPoint(globalName);
+            final Object value = GlangRuntime.getGlobal(globals, globalName);
+            synchronized (this) {
+                if (relinks++ < MAX_RELINKS) {
+                    setTarget(switchPoint.guardWithTest(
+                        MethodHandles.dropArguments(MethodHandles.constant(Object.class, value), 0, Map.class),
+                        fallback
+                    ));
+                } else {
+                    setTarget(MethodHandles.insertArguments(GET_GLOBAL, 1, globalName));
+                }
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package glang.runtime;
+
+import java.lang.invoke.SwitchPoint;
+import java.util.*;
+
+/**
+ * The globals of a compiled namespace. Globals known at compile time live in {@link #getSlots() slots}, which
+ * compiled code reads and writes directly. Anything else (e.g. from star imports) is kept in a regular map.
+ */
+public final class GlobalsMap extends AbstractMap<String, Object> {
+    public static final Object UNSET = new Object() {
+        @Override
+        public String toString() {
+            return "<unset>";
+        }
+    };
+
+    private final Map<String, Integer> slotIndices;
+    private final String[] slotNames;
+    private final Object[] slots;
+    private final Map<String, Object> dynamic = new LinkedHashMap<>();
+    // Only names that have been read through getDynamicSwitchPoint have one
+    private final Map<String, SwitchPoint> dynamicSwitchPoints = new HashMap<>();
+
+    public GlobalsMap(List<String> slotNames) {
+        this.slotNames = slotNames.toArray(String[]::new);
+        slots = new Object[this.slotNames.length];
+        Arrays.fill(slots, UNSET);
+        final Map<String, Integer> slotIndices = new HashMap<>();
+        for (int i = 0; i < this.slotNames.length; i++) {
+            if (slotIndices.put(this.slotNames[i], i) != null) {
+                throw new IllegalArgumentException("Duplicate slot " + this.slotNames[i]);
+            }
+        }
+        this.slotIndices = Map.copyOf(slotIndices);
+    }
+
+    public Object[] getSlots() {
+        return slots;
+    }
+
+    /**
+     * Invalidated whenever the global {@code name}, which doesn't have a slot, is modified. Modifying other globals
+     * leaves it alone.
+     */
+    public synchronized SwitchPoint getDynamicSwitchPoint(String name) {
+        return dynamicSwitchPoints.computeIfAbsent(name, k -> new SwitchPoint());
+    }
+
+    @Override
+    public Object get(Object key) {
+        final Integer slot = slotIndices.get(key);
+        if (slot != null) {
+            final Object value = slots[slot];
+            return value != UNSET ? value : null;
+        }
+        return dynamic.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        final Integer slot = slotIndices.get(key);
+        if (slot != null) {
+            return slots[slot] != UNSET;
+        }
+        return dynamic.containsKey(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        final Integer slot = slotIndices.get(key);
+        if (slot != null) {
+            final Object oldValue = slots[slot];
+            slots[slot] = value;
+            return oldValue != UNSET ? oldValue : null;
+        }
+        final Object oldValue = dynamic.put(key, value);
+        invalidateDynamic(List.of(key));
+        return oldValue;
+    }
+
+    /**
+     * Like putting each entry, but the {@link #getDynamicSwitchPoint SwitchPoints} are invalidated together, since
+     * star imports put many globals at a time.
+     */
+    @Override
+    public void putAll(Map<? extends String, ?> m) {
+        final List<String> dynamicChanged = new ArrayList<>();
+        for (final var entry : m.entrySet()) {
+            final Integer slot = slotIndices.get(entry.getKey());
+            if (slot != null) {
+                slots[slot] = entry.getValue();
+            } else {
+                dynamic.put(entry.getKey(), entry.getValue());
+                dynamicChanged.add(entry.getKey());
+            }
+        }
+        invalidateDynamic(dynamicChanged);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        final Integer slot = slotIndices.get(key);
+        if (slot != null) {
+            final Object oldValue = slots[slot];
+            slots[slot] = UNSET;
+            return oldValue != UNSET ? oldValue : null;
+        }
+        if (!dynamic.containsKey(key)) {
+            return null;
+        }
+        final Object oldValue = dynamic.remove(key);
+        invalidateDynamic(List.of((String)key));
+        return oldValue;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(slots, UNSET);
+        final List<String> removed = List.copyOf(dynamic.keySet());
+        dynamic.clear();
+        invalidateDynamic(removed);
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                int size = dynamic.size();
+                for (final Object value : slots) {
+                    if (value != UNSET) {
+                        size++;
+                    }
+                }
+                return size;
+            }
+        };
+    }
+
+    private synchronized void invalidateDynamic(Collection<String> names) {
+        final List<SwitchPoint> invalidated = new ArrayList<>();
+        for (final String name : names) {
+            final SwitchPoint switchPoint = dynamicSwitchPoints.remove(name);
+            if (switchPoint != null) {
+                invalidated.add(switchPoint);
+            }
+        }
+        if (!invalidated.isEmpty()) {
+            SwitchPoint.invalidateAll(invalidated.toArray(SwitchPoint[]::new));
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+        private final Iterator<Entry<String, Object>> dynamicIterator = dynamic.entrySet().iterator();
+        private int nextSlot = -1;
+        private int lastSlot = -1;
+        private boolean lastWasDynamic;
+        private String lastDynamicKey;
+
+        EntryIterator() {
+            advanceSlot();
+        }
+
+        private void advanceSlot() {
+            do {
+                nextSlot++;
+            } while (nextSlot < slots.length && slots[nextSlot] == UNSET);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextSlot < slots.length || dynamicIterator.hasNext();
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (nextSlot < slots.length) {
+                final int slot = lastSlot = nextSlot;
+                lastWasDynamic = false;
+                advanceSlot();
+                return new SimpleEntry<>(slotNames[slot], slots[slot]) {
+                    @Override
+                    public Object setValue(Object value) {
+                        slots[slot] = value;
+                        return super.setValue(value);
+                    }
+                };
+            }
+            final Entry<String, Object> result = dynamicIterator.next();
+            lastWasDynamic = true;
+            lastDynamicKey = result.getKey();
+            return new SimpleEntry<>(result) {
+                @Override
+                public Object setValue(Object value) {
+                    result.setValue(value);
+                    invalidateDynamic(List.of(result.getKey()));
+                    return super.setValue(value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (lastWasDynamic) {
+                dynamicIterator.remove();
+                invalidateDynamic(List.of(lastDynamicKey));
+            } else if (lastSlot != -1) {
+                slots[lastSlot] = UNSET;
+                lastSlot = -1;
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package glang.runtime;
+
+import glang.compiler.bytecode.GlangCompiler;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads the candidate class names tried by imports. There's one per class loader, shared by every namespace it
+ * loads, and it remembers misses as well as hits, so each candidate is only loaded once no matter how many imports
+ * try it.
+ */
+final class ImportResolver {
+    private static final Map<ClassLoader, WeakReference<ImportResolver>> BY_LOADER = new WeakHashMap<>();
+    // The resolver caches classes from its loader, so only the namespaces using it keep it alive. Otherwise,
+    // BY_LOADER would keep every loader alive through its own classes.
+    private static final ClassValue<ImportResolver> BY_LOOKUP_CLASS = new ClassValue<>() {
+        @Override
+        protected ImportResolver computeValue(Class<?> type) {
+            return forLoader(type.getClassLoader());
+        }
+    };
+
+    private final ClassLoader loader;
+    private final Map<String, Optional<Class<?>>> classes = new ConcurrentHashMap<>();
+
+    private ImportResolver(ClassLoader loader) {
+        this.loader = loader;
+    }
+
+    static ImportResolver get(MethodHandles.Lookup lookup) {
+        return BY_LOOKUP_CLASS.get(lookup.lookupClass());
+    }
+
+    private static ImportResolver forLoader(ClassLoader loader) {
+        synchronized (BY_LOADER) {
+            final WeakReference<ImportResolver> ref = BY_LOADER.get(loader);
+            ImportResolver result = ref != null ? ref.get() : null;
+            if (result == null) {
+                result = new ImportResolver(loader);
+                BY_LOADER.put(loader, new WeakReference<>(result));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Finds the class {@code name}, or else the namespace class for it, if it's accessible to {@code lookup}. This
+     * is the same as {@link MethodHandles.Lookup#findClass}, except that misses don't throw.
+     *
+     * @return The class, or {@code null} if neither exists
+     */
+    @Nullable
+    Class<?> findClass(MethodHandles.Lookup lookup, String name) {
+        final Class<?> result = accessible(lookup, load(name));
+        return result != null ? result : accessible(lookup, load(GlangCompiler.namespacePathToClassName(name)));
+    }
+
+    private Class<?> load(String name) {
+        Optional<Class<?>> result = classes.get(name);
+        if (result == null) {
+            Class<?> clazz;
+            try {
+                clazz = Class.forName(name, false, loader);
+            } catch (ClassNotFoundException e) {
+                clazz = null;
+            }
+            result = Optional.ofNullable(clazz);
+            final Optional<Class<?>> existing = classes.putIfAbsent(name, result);
+            if (existing != null) {
+                result = existing;
+            }
+        }
+        return result.orElse(null);
+    }
+
+    // Access depends on the lookup, so it isn't cached
+    private static Class<?> accessible(MethodHandles.Lookup lookup, Class<?> clazz) {
+        if (clazz == null) {
+            return null;
+        }
+        try {
+            return lookup.accessClass(clazz);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+}
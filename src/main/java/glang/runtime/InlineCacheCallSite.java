@@ -0,0 +1,188 @@
+package glang.runtime;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.lang.invoke.SwitchPoint;
+import java.util.ArrayList;
+import java.util.List;
+
+abstract class InlineCacheCallSite extends MutableCallSite {
+    public static final int MAX_DEPTH = Integer.getInteger("glang.invoke.inlineCacheSize", 8);
+
+    private static final MethodHandle FALLBACK;
+    private static final MethodHandle IS_NULL;
+    private static final MethodHandle HAS_CLASS;
+    private static final MethodHandle IS_SAME;
+    private static final MethodHandle IS_ASSIGNABLE;
+
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            FALLBACK = lookup.findVirtual(
+                InlineCacheCallSite.class, "fallback", MethodType.methodType(Object.class, Object[].class)
+            );
+            IS_NULL = lookup.findStatic(
+                InlineCacheCallSite.class, "isNull", MethodType.methodType(boolean.class, Object.class)
+            );
+            HAS_CLASS = lookup.findStatic(
+                InlineCacheCallSite.class, "hasClass", MethodType.methodType(boolean.class, Class.class, Object.class)
+            );
+            IS_SAME = lookup.findStatic(
+                InlineCacheCallSite.class, "isSame", MethodType.methodType(boolean.class, Object.class, Object.class)
+            );
+            IS_ASSIGNABLE = lookup.findStatic(
+                InlineCacheCallSite.class, "isAssignableReference", MethodType.methodType(boolean.class, Class.class, Object.class)
+            );
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private final MethodHandle fallback;
+    private List<CacheEntry> entries = List.of();
+    private boolean megamorphic;
+
+    protected InlineCacheCallSite(MethodType type) {
+        super(type);
+        fallback = FALLBACK.bindTo(this).asCollector(Object[].class, type.parameterCount()).asType(type);
+        setTarget(fallback);
+    }
+
+    /**
+     * Resolves the handle to use for {@code args}, along with a guard that accepts every argument list the handle
+     * is valid for. Both handles must have this call site's type (with a {@code boolean} return for the guard).
+     */
+    protected abstract CacheEntry link(Object[] args) throws Throwable;
+
+    protected abstract MethodHandle megamorphic() throws ReflectiveOperationException;
+
+    private Object fallback(Object[] args) throws Throwable {
+        final CacheEntry entry = link(args);
+        synchronized (this) {
+            if (!megamorphic) {
+                final List<CacheEntry> current = pruneInvalidated();
+                if (current.size() >= MAX_DEPTH) {
+                    megamorphic = true;
+                    entries = List.of();
+                    setTarget(megamorphic().asType(type()));
+                } else {
+                    final List<CacheEntry> newEntries = new ArrayList<>(current.size() + 1);
+                    newEntries.addAll(current);
+                    newEntries.add(entry);
+                    entries = newEntries;
+                    setTarget(buildChain(newEntries));
+                }
+            }
+        }
+        return entry.target().invokeWithArguments(args);
+    }
+
+    /**
+     * Drops entries whose {@link SwitchPoint} has been invalidated, so they don't count toward {@link #MAX_DEPTH}.
+     */
+    private List<CacheEntry> pruneInvalidated() {
+        for (final CacheEntry entry : entries) {
+            if (entry.switchPoint() != null && entry.switchPoint().hasBeenInvalidated()) {
+                final List<CacheEntry> valid = new ArrayList<>(entries.size());
+                for (final CacheEntry check : entries) {
+                    if (check.switchPoint() == null || !check.switchPoint().hasBeenInvalidated()) {
+                        valid.add(check);
+                    }
+                }
+                return entries = valid;
+            }
+        }
+        return entries;
+    }
+
+    private MethodHandle buildChain(List<CacheEntry> entries) {
+        MethodHandle chain = fallback;
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            final CacheEntry entry = entries.get(i);
+            MethodHandle target = entry.target();
+            if (entry.switchPoint() != null) {
+                // Once invalidated, this falls back and relinks rather than trying the rest of the chain
+                target = entry.switchPoint().guardWithTest(target, fallback);
+            }
+            chain = MethodHandles.guardWithTest(entry.guard(), target, chain);
+        }
+        return chain;
+    }
+
+    protected MethodHandle guardClass(int index, Object arg) {
+        final MethodHandle test = arg == null
+            ? IS_NULL
+            : MethodHandles.insertArguments(HAS_CLASS, 0, arg.getClass());
+        return expandGuard(test, index);
+    }
+
+    protected MethodHandle guardIdentity(int index, Object value) {
+        return expandGuard(MethodHandles.insertArguments(IS_SAME, 0, value), index);
+    }
+
+    /**
+     * Accepts any argument assignable to {@code type}, following {@link RuntimeUtil#isAssignableFrom}. A primitive
+     * {@code type} only accepts its exact wrapper.
+     */
+    protected MethodHandle guardAssignable(int index, Class<?> type) {
+        final MethodHandle test = type.isPrimitive()
+            ? MethodHandles.insertArguments(HAS_CLASS, 0, RuntimeUtil.TO_WRAPPER_MAP.get(type))
+            : MethodHandles.insertArguments(IS_ASSIGNABLE, 0, type);
+        return expandGuard(test, index);
+    }
+
+    /**
+     * Whether {@link #guardAssignable} for {@code type} would accept {@code arg}.
+     */
+    protected static boolean isAssignable(Class<?> type, Object arg) {
+        return type.isPrimitive()
+            ? hasClass(RuntimeUtil.TO_WRAPPER_MAP.get(type), arg)
+            : isAssignableReference(type, arg);
+    }
+
+    protected MethodHandle guardAll(MethodHandle... guards) {
+        MethodHandle result = guards[guards.length - 1];
+        final MethodHandle fail = MethodHandles.dropArguments(
+            MethodHandles.constant(boolean.class, false), 0, type().parameterList()
+        );
+        for (int i = guards.length - 2; i >= 0; i--) {
+            result = MethodHandles.guardWithTest(guards[i], result, fail);
+        }
+        return result;
+    }
+
+    private MethodHandle expandGuard(MethodHandle test, int index) {
+        final MethodType type = type();
+        return MethodHandles.permuteArguments(
+            test.asType(MethodType.methodType(boolean.class, type.parameterType(index))),
+            type.changeReturnType(boolean.class), index
+        );
+    }
+
+    private static boolean isNull(Object arg) {
+        return arg == null;
+    }
+
+    private static boolean hasClass(Class<?> clazz, Object arg) {
+        return arg != null && arg.getClass() == clazz;
+    }
+
+    private static boolean isSame(Object expected, Object actual) {
+        return expected == actual;
+    }
+
+    private static boolean isAssignableReference(Class<?> type, Object arg) {
+        return arg == null || type.isInstance(arg);
+    }
+
+    /**
+     * @param switchPoint If non-{@code null}, {@code target} is only used until this is invalidated
+     */
+    protected record CacheEntry(MethodHandle guard, MethodHandle target, SwitchPoint switchPoint) {
+        public CacheEntry(MethodHandle guard, MethodHandle target) {
+            this(guard, target, null);
+        }
+    }
+}
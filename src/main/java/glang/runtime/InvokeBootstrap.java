@@ -1,6 +1,134 @@
 package glang.runtime;
 
+import glang.exception.UninvokableObjectException;
+import glang.runtime.lookup.MethodLookup;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+
 public final class InvokeBootstrap {
+    private static final int OBJECT_INVOKERS_MAX_ARGS = 16;
+
+    private static final MethodHandle INVOKE_OBJECT_ARRAY;
+
+    static {
+        try {
+            INVOKE_OBJECT_ARRAY = MethodHandles.lookup().findStatic(
+                GlangRuntime.class, "invokeObject",
+                MethodType.methodType(Object.class, Object.class, Object[].class)
+            );
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private InvokeBootstrap() {
     }
+
+    public static CallSite invoke(MethodHandles.Lookup lookup, String name, MethodType type) {
+        if (type.returnType() != Object.class || !type.equals(type.generic())) {
+            throw new IllegalArgumentException("invoke type must only contain Object, not " + type);
+        }
+        if (type.parameterCount() == 0) {
+            throw new IllegalArgumentException("invoke type must take a target");
+        }
+        return new InvokeCallSite(type, false);
+    }
+
+    /**
+     * An {@link #invoke} whose target is an import, so it's usually the same object every time. If it has only one
+     * overload for this call's arity, that's linked once for every argument it accepts, instead of once per argument
+     * class.
+     */
+    public static CallSite invokeImport(MethodHandles.Lookup lookup, String name, MethodType type) {
+        if (type.returnType() != Object.class || !type.equals(type.generic())) {
+            throw new IllegalArgumentException("invokeImport type must only contain Object, not " + type);
+        }
+        if (type.parameterCount() == 0) {
+            throw new IllegalArgumentException("invokeImport type must take a target");
+        }
+        return new InvokeCallSite(type, true);
+    }
+
+    private static final class InvokeCallSite extends InlineCacheCallSite {
+        private final boolean imported;
+
+        InvokeCallSite(MethodType type, boolean imported) {
+            super(type);
+            this.imported = imported;
+        }
+
+        @Override
+        protected CacheEntry link(Object[] args) throws Throwable {
+            final Object target = args[0];
+            final MethodLookup lookup;
+            if (target == null) {
+                throw new NullPointerException("null is not invokable");
+            } else if (target instanceof Class<?> clazz) {
+                lookup = GlangRuntime.findConstructors(clazz);
+            } else if (target instanceof MethodLookup methodLookup) {
+                lookup = methodLookup;
+            } else {
+                throw new UninvokableObjectException("Cannot invoke object of type " + target.getClass().getName());
+            }
+
+            if (imported) {
+                final MethodHandle sole = lookup.getSoleInvoker(args.length - 1);
+                // Arguments it doesn't accept are linked normally, so they get the usual overload error
+                if (sole != null && acceptsAll(sole.type(), args)) {
+                    return linkSole(target, sole);
+                }
+            }
+
+            final Class<?>[] argTypes = new Class<?>[args.length - 1];
+            final MethodHandle[] guards = new MethodHandle[args.length];
+            guards[0] = guardIdentity(0, target);
+            for (int i = 1; i < args.length; i++) {
+                argTypes[i - 1] = GlangRuntime.getClass(args[i]);
+                guards[i] = guardClass(i, args[i]);
+            }
+
+            final MethodHandle invoker = lookup.getInvoker(List.of(argTypes))
+                .asType(type().dropParameterTypes(0, 1));
+            return new CacheEntry(guardAll(guards), MethodHandles.dropArguments(invoker, 0, Object.class));
+        }
+
+        private static boolean acceptsAll(MethodType soleType, Object[] args) {
+            for (int i = 0; i < soleType.parameterCount(); i++) {
+                if (!isAssignable(soleType.parameterType(i), args[i + 1])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private CacheEntry linkSole(Object target, MethodHandle sole) {
+            final List<MethodHandle> guards = new ArrayList<>(sole.type().parameterCount() + 1);
+            guards.add(guardIdentity(0, target));
+            for (int i = 0; i < sole.type().parameterCount(); i++) {
+                final Class<?> paramType = sole.type().parameterType(i);
+                if (paramType != Object.class) {
+                    guards.add(guardAssignable(i + 1, paramType));
+                }
+            }
+            final MethodHandle invoker = sole.asType(type().dropParameterTypes(0, 1));
+            return new CacheEntry(
+                guardAll(guards.toArray(MethodHandle[]::new)),
+                MethodHandles.dropArguments(invoker, 0, Object.class)
+            );
+        }
+
+        @Override
+        protected MethodHandle megamorphic() throws ReflectiveOperationException {
+            final int argCount = type().parameterCount() - 1;
+            if (argCount <= OBJECT_INVOKERS_MAX_ARGS) {
+                return MethodHandles.lookup().findStatic(ObjectInvokers.class, "invokeObject", type());
+            }
+            return INVOKE_OBJECT_ARRAY.asCollector(Object[].class, argCount);
+        }
+    }
 }
@@ -3,8 +3,6 @@ package glang.runtime;
 import glang.exception.UninvokableObjectException;
 import glang.runtime.lookup.MethodLookup;
 
-import java.util.List;
-
 // WARNING: This class is generated by the generateObjectInvokers build task, DO NOT MODIFY.
 // WARNING: If changes are needed, modify the task, not this file.
 public final class ObjectInvokers {
@@ -32,9 +30,15 @@ public final class ObjectInvokers {
             target = GlangRuntime.findConstructors(clazz);
         }
         if (target instanceof MethodLookup lookup) {
-            return lookup.getInvoker(List.of(
-                GlangRuntime.getClass(arg0)
-            )).invoke(arg0);
+            final Class<?> type0 = GlangRuntime.getClass(arg0);
+            int hash = 1;
+            hash = MethodLookup.hashArgType(hash, type0);
+            final MethodLookup.CachedInvoker cached = lookup.findCachedInvoker(hash);
+            if (cached != null && cached.argCount() == 1 &&
+                cached.matchesArg(0, type0)) {
+                return cached.invoker().invoke(arg0);
+            }
+            return lookup.resolveInvoker(new Class<?>[] {type0}).invoke(arg0);
         }
         throw new UninvokableObjectException("Cannot invoke object of type " + target.getClass().getName());
     }
@@ -47,10 +51,18 @@ public final class ObjectInvokers {
             target = GlangRuntime.findConstructors(clazz);
         }
         if (target instanceof MethodLookup lookup) {
-            return lookup.getInvoker(List.of(
-                GlangRuntime.getClass(arg0), 
-                GlangRuntime.getClass(arg1)
-            )).invoke(arg0, arg1);
+            final Class<?> type0 = GlangRuntime.getClass(arg0);
+            final Class<?> type1 = GlangRuntime.getClass(arg1);
+            int hash = 2;
+            hash = MethodLookup.hashArgType(hash, type0);
+            hash = MethodLookup.hashArgType(hash, type1);
+            final MethodLookup.CachedInvoker cached = lookup.findCachedInvoker(hash);
+            if (cached != null && cached.argCount() == 2 &&
+                cached.matchesArg(0, type0) &&
+                cached.matchesArg(1, type1)) {
+                return cached.invoker().invoke(arg0, arg1);
+            }
+            return lookup.resolveInvoker(new Class<?>[] {type0, type1}).invoke(arg0, arg1);
         }
         throw new UninvokableObjectException("Cannot invoke object of type " + target.getClass().getName());
     }
@@ -63,11 +75,21 @@ public final class ObjectInvokers {
             target = GlangRuntime.findConstructors(clazz);
         }
         if (target instanceof MethodLookup lookup) {
-            return lookup.getInvoker(List.of(
-                GlangRuntime.getClass(arg0), 
-                GlangRuntime.getClass(arg1), 
-                GlangRuntime.getClass(arg2)
-            )).invoke(arg0, arg1, arg2);
+            final Class<?> type0 = GlangRuntime.getClass(arg0);
+            final Class<?> type1 = GlangRuntime.getClass(arg1);
+            final Class<?> type2 = GlangRuntime.getClass(arg2);
+            int hash = 3;
+            hash = MethodLookup.hashArgType(hash, type0);
+            hash = MethodLookup.hashArgType(hash, type1);
+            hash = MethodLookup.hashArgType(hash, type2);
+            final MethodLookup.CachedInvoker cached = lookup.findCachedInvoker(hash);
+            if (cached != null && cached.argCount() == 3 &&
+                cached.matchesArg(0, type0) &&
+                cached.matchesArg(1, type1) &&
+                cached.matchesArg(2, type2)) {
+                return cached.invoker().invoke(arg0, arg1, arg2);
+            }
+            return lookup.resolveInvoker(new Class<?>[] {type0, type1, type2}).invoke(arg0, arg1, arg2);
         }
         throw new UninvokableObjectException("Cannot invoke object of type " + target.getClass().getName());
     }
@@ -80,12 +102,24 @@ public final class ObjectInvokers {
             target = GlangRuntime.findConstructors(clazz);
         }
         if (target instanceof MethodLookup lookup) {
-            return lookup.getInvoker(List.of(
-                GlangRuntime.getClass(arg0), 
-                GlangRuntime.getClass(arg1), 
-                GlangRuntime.getClass(arg2), 
-                GlangRuntime.getClass(arg3)
-            )).invoke(arg0, arg1, arg2, arg3);
+            final Class<?> type0 = GlangRuntime.getClass(arg0);
+            final Class<?> type1 = GlangRuntime.getClass(arg1);
+            final Class<?> type2 = GlangRuntime.getClass(arg2);
+            final Class<?> type3 = GlangRuntime.getClass(arg3);
+            int hash = 4;
+            hash = MethodLookup.hashArgType(hash, type0);
+            hash = MethodLookup.hashArgType(hash, type1);
+            hash = MethodLookup.hashArgType(hash, type2);
+            hash = MethodLookup.hashArgType(hash, type3);
+            final MethodLookup.CachedInvoker cached = lookup.findCachedInvoker(hash);
+            if (cached != null && cached.argCount() == 4 &&
+                cached.matchesArg(0, type0) &&
+                cached.matchesArg(1, type1) &&
+                cached.matchesArg(2, type2) &&
+                cached.matchesArg(3, type3)) {
+                return cached.invoker().invoke(arg0, arg1, arg2, arg3);
+            }
+            return lookup.resolveInvoker(new Class<?>[] {type0, type1, type2, type3}).invoke(arg0, arg1, arg2, arg3);
         }
         throw new UninvokableObjectException("Cannot invoke object of type " + target.getClass().getName());
     }
@@ -98,13 +132,27 @@ public final class ObjectInvokers {
             target = GlangRuntime.findConstructors(clazz);
         }
         if (target instanceof MethodLookup lookup) {
-            return lookup.getInvoker(List.of(
-                GlangRuntime.getClass(arg0), 
-                GlangRuntime.getClass(arg1), 
-                GlangRuntime.getClass(arg2), 
-                GlangRuntime.getClass(arg3), 
-                GlangRuntime.getClass(arg4)
-            )).invoke(arg0, arg1, arg2, arg3, arg4);
+            final Class<?> type0 = GlangRuntime.getClass(arg0);
+            final Class<?> type1 = GlangRuntime.getClass(arg1);
+            final Class<?> type2 = GlangRuntime.getClass(arg2);
+            final Class<?> type3 = GlangRuntime.getClass(arg3);
+            final Class<?> type4 = GlangRuntime.getClass(arg4);
+            int hash = 5;
+            hash = MethodLookup.hashArgType(hash, type0);
+            hash = MethodLookup.hashArgType(hash, type1);
+            hash = MethodLookup.hashArgType(hash, type2);
+            hash = MethodLookup.hashArgType(hash, type3);
+            hash = MethodLookup.hashArgType(hash, type4);
+            final MethodLookup.CachedInvoker cached = lookup.findCachedInvoker(hash);
+            if (cached != null && cached.argCount() == 5 &&
+                cached.matchesArg(0, type0) &&
+                cached.matchesArg(1, type1) &&
+                cached.matchesArg(2, type2) &&
+                cached.matchesArg(3, type3) &&
+                cached.matchesArg(4, type4)) {
+                return cached.invoker().invoke(arg0, arg1, arg2, arg3, arg4);
+            }
+            return lookup.resolveInvoker(new Class<?>[] {type0, type1, type2, type3, type4}).invoke(arg0, arg1, arg2, arg3, arg4);
         }
         throw new UninvokableObjectException("Cannot invoke object of type " + target.getClass().getName());
     }
@@ -117,14 +165,30 @@ public final class ObjectInvokers {
             target = GlangRuntime.findConstructors(clazz);
         }
         if (target instanceof MethodLookup lookup) {
-            return lookup.getInvoker(List.of(
-                GlangRuntime.getClass(arg0), 
-                GlangRuntime.getClass(arg1), 
-                GlangRuntime.getClass(arg2), 
-                GlangRuntime.getClass(arg3), 
-                GlangRuntime.getClass(arg4), 
-                GlangRuntime.getClass(arg5)
-            )).invoke(arg0, arg1, arg2, arg3, arg4, arg5);
+            final Class<?> type0 = GlangRuntime.getClass(arg0);
+            final Class<?> type1 = GlangRuntime.getClass(arg1);
+            final Class<?> type2 = GlangRuntime.getClass(arg2);
+            final Class<?> type3 = GlangRuntime.getClass(arg3);
+            final Class<?> type4 = GlangRuntime.getClass(arg4);
+            final Class<?> type5 = GlangRuntime.getClass(arg5);
+            int hash = 6;
+            hash = MethodLookup.hashArgType(hash, type0);
+            hash = MethodLookup.hashArgType(hash, type1);
+            hash = MethodLookup.hashArgType(hash, type2);
+            hash = MethodLookup.hashArgType(hash, type3);
+            hash = MethodLookup.hashArgType(hash, type4);
+            hash = MethodLookup.hashArgType(hash, type5);
+            final MethodLookup.CachedInvoker cached = lookup.findCachedInvoker(hash);
+            if (cached != null && cached.argCount() == 6 &&
+                cached.matchesArg(0, type0) &&
+                cached.matchesArg(1, type1) &&
+                cached.matchesArg(2, type2) &&
+                cached.matchesArg(3, type3) &&
+                cached.matchesArg(4, type4) &&
+                cached.matchesArg(5, type5)) {
+                return cached.invoker().invoke(arg0, arg1, arg2, arg3, arg4, arg5);
+            }
+            return lookup.resolveInvoker(new Class<?>[] {type0, type1, type2, type3, type4, type5}).invoke(arg0, arg1, arg2, arg3, arg4, arg5);
         }
         throw new UninvokableObjectException("Cannot invoke object of type " + target.getClass().getName());
     }
@@ -137,15 +201,33 @@ public final class ObjectInvokers {
             target = GlangRuntime.findConstructors(clazz);
         }
         if (target instanceof MethodLookup lookup) {
-            return lookup.getInvoker(List.of(
-                GlangRuntime.getClass(arg0), 
-                GlangRuntime.getClass(arg1), 
-                GlangRuntime.getClass(arg2), 
-                GlangRuntime.getClass(arg3), 
-                GlangRuntime.getClass(arg4), 
-                GlangRuntime.getClass(arg5), 
-                GlangRuntime.getClass(arg6)
-            )).invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6);
+            final Class<?> type0 = GlangRuntime.getClass(arg0);
+            final Class<?> type1 = GlangRuntime.getClass(arg1);
+            final Class<?> type2 = GlangRuntime.getClass(arg2);
+            final Class<?> type3 = GlangRuntime.getClass(arg3);
+            final Class<?> type4 = GlangRuntime.getClass(arg4);
+            final Class<?> type5 = GlangRuntime.getClass(arg5);
+            final Class<?> type6 = GlangRuntime.getClass(arg6);
+            int hash = 7;
+            hash = MethodLookup.hashArgType(hash, type0);
+            hash = MethodLookup.hashArgType(hash, type1);
+            hash = MethodLookup.hashArgType(hash, type2);
+            hash = MethodLookup.hashArgType(hash, type3);
+            hash = MethodLookup.hashArgType(hash, type4);
+            hash = MethodLookup.hashArgType(hash, type5);
+            hash = MethodLookup.hashArgType(hash, type6);
+            final MethodLookup.CachedInvoker cached = lookup.findCachedInvoker(hash);
+            if (cached != null && cached.argCount() == 7 &&
+                cached.matchesArg(0, type0) &&
+                cached.matchesArg(1, type1) &&
+                cached.matchesArg(2, type2) &&
+                cached.matchesArg(3, type3) &&
+                cached.matchesArg(4, type4) &&
+                cached.matchesArg(5, type5) &&
+                cached.matchesArg(6, type6)) {
+                return cached.invoker().invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6);
+            }
+            return lookup.resolveInvoker(new Class<?>[] {type0, type1, type2, type3, type4, type5, type6}).invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6);
         }
         throw new UninvokableObjectException("Cannot invoke object of type " + target.getClass().getName());
     }
@@ -158,16 +240,36 @@ public final class ObjectInvokers {
             target = GlangRuntime.findConstructors(clazz);
         }
         if (target instanceof MethodLookup lookup) {
-            return lookup.getInvoker(List.of(
-                GlangRuntime.getClass(arg0), 
-                GlangRuntime.getClass(arg1), 
-                GlangRuntime.getClass(arg2), 
-                GlangRuntime.getClass(arg3), 
-                GlangRuntime.getClass(arg4), 
-                GlangRuntime.getClass(arg5), 
-                GlangRuntime.getClass(arg6), 
-                GlangRuntime.getClass(arg7)
-            )).invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+            final Class<?> type0 = GlangRuntime.getClass(arg0);
+            final Class<?> type1 = GlangRuntime.getClass(arg1);
+            final Class<?> type2 = GlangRuntime.getClass(arg2);
+            final Class<?> type3 = GlangRuntime.getClass(arg3);
+            final Class<?> type4 = GlangRuntime.getClass(arg4);
+            final Class<?> type5 = GlangRuntime.getClass(arg5);
+            final Class<?> type6 = GlangRuntime.getClass(arg6);
+            final Class<?> type7 = GlangRuntime.getClass(arg7);
+            int hash = 8;
+            hash = MethodLookup.hashArgType(hash, type0);
+            hash = MethodLookup.hashArgType(hash, type1);
+            hash = MethodLookup.hashArgType(hash, type2);
+            hash = MethodLookup.hashArgType(hash, type3);
+            hash = MethodLookup.hashArgType(hash, type4);
+            hash = MethodLookup.hashArgType(hash, type5);
+            hash = MethodLookup.hashArgType(hash, type6);
+            hash = MethodLookup.hashArgType(hash, type7);
+            final MethodLookup.CachedInvoker cached = lookup.findCachedInvoker(hash);
+            if (cached != null && cached.argCount() == 8 &&
+                cached.matchesArg(0, type0) &&
+                cached.matchesArg(1, type1) &&
+                cached.matchesArg(2, type2) &&
+                cached.matchesArg(3, type3) &&
+                cached.matchesArg(4, type4) &&
+                cached.matchesArg(5, type5) &&
+                cached.matchesArg(6, type6) &&
+                cached.matchesArg(7, type7)) {
+                return cached.invoker().invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+            }
+            return lookup.resolveInvoker(new Class<?>[] {type0, type1, type2, type3, type4, type5, type6, type7}).invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
         }
         throw new UninvokableObjectException("Cannot invoke object of type " + target.getClass().getName());
     }
@@ -180,17 +282,39 @@ public final class ObjectInvokers {
             target = GlangRuntime.findConstructors(clazz);
         }
         if (target instanceof MethodLookup lookup) {
-            return lookup.getInvoker(List.of(
-                GlangRuntime.getClass(arg0), 
-                GlangRuntime.getClass(arg1), 
-                GlangRuntime.getClass(arg2), 
-                GlangRuntime.getClass(arg3), 
-                GlangRuntime.getClass(arg4), 
-                GlangRuntime.getClass(arg5), 
-                GlangRuntime.getClass(arg6), 
-                GlangRuntime.getClass(arg7), 
-                GlangRuntime.getClass(arg8)
-            )).invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+            final Class<?> type0 = GlangRuntime.getClass(arg0);
+            final Class<?> type1 = GlangRuntime.getClass(arg1);
+            final Class<?> type2 = GlangRuntime.getClass(arg2);
+            final Class<?> type3 = GlangRuntime.getClass(arg3);
+            final Class<?> type4 = GlangRuntime.getClass(arg4);
+            final Class<?> type5 = GlangRuntime.getClass(arg5);
+            final Class<?> type6 = GlangRuntime.getClass(arg6);
+            final Class<?> type7 = GlangRuntime.getClass(arg7);
+            final Class<?> type8 = GlangRuntime.getClass(arg8);
+            int hash = 9;
+            hash = MethodLookup.hashArgType(hash, type0);
+            hash = MethodLookup.hashArgType(hash, type1);
+            hash = MethodLookup.hashArgType(hash, type2);
+            hash = MethodLookup.hashArgType(hash, type3);
+            hash = MethodLookup.hashArgType(hash, type4);
+            hash = MethodLookup.hashArgType(hash, type5);
+            hash = MethodLookup.hashArgType(hash, type6);
+            hash = MethodLookup.hashArgType(hash, type7);
+            hash = MethodLookup.hashArgType(hash, type8);
+            final MethodLookup.CachedInvoker cached = lookup.findCachedInvoker(hash);
+            if (cached != null && cached.argCount() == 9 &&
+                cached.matchesArg(0, type0) &&
+                cached.matchesArg(1, type1) &&
+                cached.matchesArg(2, type2) &&
+                cached.matchesArg(3, type3) &&
+                cached.matchesArg(4, type4) &&
+                cached.matchesArg(5, type5) &&
+                cached.matchesArg(6, type6) &&
+                cached.matchesArg(7, type7) &&
+                cached.matchesArg(8, type8)) {
+                return cached.invoker().invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+            }
+            return lookup.resolveInvoker(new Class<?>[] {type0, type1, type2, type3, type4, type5, type6, type7, type8}).invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
         }
         throw new UninvokableObjectException("Cannot invoke object of type " + target.getClass().getName());
     }
@@ -203,18 +327,42 @@ public final class ObjectInvokers {
             target = GlangRuntime.findConstructors(clazz);
         }
         if (target instanceof MethodLookup lookup) {
-            return lookup.getInvoker(List.of(
-                GlangRuntime.getClass(arg0), 
-                GlangRuntime.getClass(arg1), 
-                GlangRuntime.getClass(arg2), 
-                GlangRuntime.getClass(arg3), 
-                GlangRuntime.getClass(arg4), 
-                GlangRuntime.getClass(arg5), 
-                GlangRuntime.getClass(arg6), 
-                GlangRuntime.getClass(arg7), 
-                GlangRuntime.getClass(arg8), 
-                GlangRuntime.getClass(arg9)
-            )).invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+            final Class<?> type0 = GlangRuntime.getClass(arg0);
+            final Class<?> type1 = GlangRuntime.getClass(arg1);
+            final Class<?> type2 = GlangRuntime.getClass(arg2);
+            final Class<?> type3 = GlangRuntime.getClass(arg3);
+            final Class<?> type4 = GlangRuntime.getClass(arg4);
+            final Class<?> type5 = GlangRuntime.getClass(arg5);
+            final Class<?> type6 = GlangRuntime.getClass(arg6);
+            final Class<?> type7 = GlangRuntime.getClass(arg7);
+            final Class<?> type8 = GlangRuntime.getClass(arg8);
+            final Class<?> type9 = GlangRuntime.getClass(arg9);
+            int hash = 10;
+            hash = MethodLookup.hashArgType(hash, type0);
+            hash = MethodLookup.hashArgType(hash, type1);
+            hash = MethodLookup.hashArgType(hash, type2);
+            hash = MethodLookup.hashArgType(hash, type3);
+            hash = MethodLookup.hashArgType(hash, type4);
+            hash = MethodLookup.hashArgType(hash, type5);
+            hash = MethodLookup.hashArgType(hash, type6);
+            hash = MethodLookup.hashArgType(hash, type7);
+            hash = MethodLookup.hashArgType(hash, type8);
+            hash = MethodLookup.hashArgType(hash, type9);
+            final MethodLookup.CachedInvoker cached = lookup.findCachedInvoker(hash);
+            if (cached != null && cached.argCount() == 10 &&
+                cached.matchesArg(0, type0) &&
+                cached.matchesArg(1, type1) &&
+                cached.matchesArg(2, type2) &&
+                cached.matchesArg(3, type3) &&
+                cached.matchesArg(4, type4) &&
+                cached.matchesArg(5, type5) &&
+                cached.matchesArg(6, type6) &&
+                cached.matchesArg(7, type7) &&
+                cached.matchesArg(8, type8) &&
+                cached.matchesArg(9, type9)) {
+                return cached.invoker().invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+            }
+            return lookup.resolveInvoker(new Class<?>[] {type0, type1, type2, type3, type4, type5, type6, type7, type8, type9}).invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
         }
         throw new UninvokableObjectException("Cannot invoke object of type " + target.getClass().getName());
     }
@@ -227,19 +375,45 @@ public final class ObjectInvokers {
             target = GlangRuntime.findConstructors(clazz);
         }
         if (target instanceof MethodLookup lookup) {
-            return lookup.getInvoker(List.of(
-                GlangRuntime.getClass(arg0), 
-                GlangRuntime.getClass(arg1), 
-                GlangRuntime.getClass(arg2), 
-                GlangRuntime.getClass(arg3), 
-                GlangRuntime.getClass(arg4), 
-                GlangRuntime.getClass(arg5), 
-                GlangRuntime.getClass(arg6), 
-                GlangRuntime.getClass(arg7), 
-                GlangRuntime.getClass(arg8), 
-                GlangRuntime.getClass(arg9), 
-                GlangRuntime.getClass(arg10)
-            )).invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+            final Class<?> type0 = GlangRuntime.getClass(arg0);
+            final Class<?> type1 = GlangRuntime.getClass(arg1);
+            final Class<?> type2 = GlangRuntime.getClass(arg2);
+            final Class<?> type3 = GlangRuntime.getClass(arg3);
+            final Class<?> type4 = GlangRuntime.getClass(arg4);
+            final Class<?> type5 = GlangRuntime.getClass(arg5);
+            final Class<?> type6 = GlangRuntime.getClass(arg6);
+            final Class<?> type7 = GlangRuntime.getClass(arg7);
+            final Class<?> type8 = GlangRuntime.getClass(arg8);
+            final Class<?> type9 = GlangRuntime.getClass(arg9);
+            final Class<?> type10 = GlangRuntime.getClass(arg10);
+            int hash = 11;
+            hash = MethodLookup.hashArgType(hash, type0);
+            hash = MethodLookup.hashArgType(hash, type1);
+            hash = MethodLookup.hashArgType(hash, type2);
+            hash = MethodLookup.hashArgType(hash, type3);
+            hash = MethodLookup.hashArgType(hash, type4);
+            hash = MethodLookup.hashArgType(hash, type5);
+            hash = MethodLookup.hashArgType(hash, type6);
+            hash = MethodLookup.hashArgType(hash, type7);
+            hash = MethodLookup.hashArgType(hash, type8);
+            hash = MethodLookup.hashArgType(hash, type9);
+            hash = MethodLookup.hashArgType(hash, type10);
+            final MethodLookup.CachedInvoker cached = lookup.findCachedInvoker(hash);
+            if (cached != null && cached.argCount() == 11 &&
+                cached.matchesArg(0, type0) &&
+                cached.matchesArg(1, type1) &&
+                cached.matchesArg(2, type2) &&
+                cached.matchesArg(3, type3) &&
+                cached.matchesArg(4, type4) &&
+                cached.matchesArg(5, type5) &&
+                cached.matchesArg(6, type6) &&
+                cached.matchesArg(7, type7) &&
+                cached.matchesArg(8, type8) &&
+                cached.matchesArg(9, type9) &&
+                cached.matchesArg(10, type10)) {
+                return cached.invoker().invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+            }
+            return lookup.resolveInvoker(new Class<?>[] {type0, type1, type2, type3, type4, type5, type6, type7, type8, type9, type10}).invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
         }
         throw new UninvokableObjectException("Cannot invoke object of type " + target.getClass().getName());
     }
@@ -252,20 +426,48 @@ public final class ObjectInvokers {
             target = GlangRuntime.findConstructors(clazz);
         }
         if (target instanceof MethodLookup lookup) {
-            return lookup.getInvoker(List.of(
-                GlangRuntime.getClass(arg0), 
-                GlangRuntime.getClass(arg1), 
-                GlangRuntime.getClass(arg2), 
-                GlangRuntime.getClass(arg3), 
-                GlangRuntime.getClass(arg4), 
-                GlangRuntime.getClass(arg5), 
-                GlangRuntime.getClass(arg6), 
-                GlangRuntime.getClass(arg7), 
-                GlangRuntime.getClass(arg8), 
-                GlangRuntime.getClass(arg9), 
-                GlangRuntime.getClass(arg10), 
-                GlangRuntime.getClass(arg11)
-            )).invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11);
+            final Class<?> type0 = GlangRuntime.getClass(arg0);
+            final Class<?> type1 = GlangRuntime.getClass(arg1);
+            final Class<?> type2 = GlangRuntime.getClass(arg2);
+            final Class<?> type3 = GlangRuntime.getClass(arg3);
+            final Class<?> type4 = GlangRuntime.getClass(arg4);
+            final Class<?> type5 = GlangRuntime.getClass(arg5);
+            final Class<?> type6 = GlangRuntime.getClass(arg6);
+            final Class<?> type7 = GlangRuntime.getClass(arg7);
+            final Class<?> type8 = GlangRuntime.getClass(arg8);
+            final Class<?> type9 = GlangRuntime.getClass(arg9);
+            final Class<?> type10 = GlangRuntime.getClass(arg10);
+            final Class<?> type11 = GlangRuntime.getClass(arg11);
+            int hash = 12;
+            hash = MethodLookup.hashArgType(hash, type0);
+            hash = MethodLookup.hashArgType(hash, type1);
+            hash = MethodLookup.hashArgType(hash, type2);
+            hash = MethodLookup.hashArgType(hash, type3);
+            hash = MethodLookup.hashArgType(hash, type4);
+            hash = MethodLookup.hashArgType(hash, type5);
+            hash = MethodLookup.hashArgType(hash, type6);
+            hash = MethodLookup.hashArgType(hash, type7);
+            hash = MethodLookup.hashArgType(hash, type8);
+            hash = MethodLookup.hashArgType(hash, type9);
+            hash = MethodLookup.hashArgType(hash, type10);
+            hash = MethodLookup.hashArgType(hash, type11);
+            final MethodLookup.CachedInvoker cached = lookup.findCachedInvoker(hash);
+            if (cached != null && cached.argCount() == 12 &&
+                cached.matchesArg(0, type0) &&
+                cached.matchesArg(1, type1) &&
+                cached.matchesArg(2, type2) &&
+                cached.matchesArg(3, type3) &&
+                cached.matchesArg(4, type4) &&
+                cached.matchesArg(5, type5) &&
+                cached.matchesArg(6, type6) &&
+                cached.matchesArg(7, type7) &&
+                cached.matchesArg(8, type8) &&
+                cached.matchesArg(9, type9) &&
+                cached.matchesArg(10, type10) &&
+                cached.matchesArg(11, type11)) {
+                return cached.invoker().invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11);
+            }
+            return lookup.resolveInvoker(new Class<?>[] {type0, type1, type2, type3, type4, type5, type6, type7, type8, type9, type10, type11}).invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11);
         }
         throw new UninvokableObjectException("Cannot invoke object of type " + target.getClass().getName());
     }
@@ -278,21 +480,51 @@ public final class ObjectInvokers {
             target = GlangRuntime.findConstructors(clazz);
         }
         if (target instanceof MethodLookup lookup) {
-            return lookup.getInvoker(List.of(
-                GlangRuntime.getClass(arg0), 
-                GlangRuntime.getClass(arg1), 
-                GlangRuntime.getClass(arg2), 
-                GlangRuntime.getClass(arg3), 
-                GlangRuntime.getClass(arg4), 
-                GlangRuntime.getClass(arg5), 
-                GlangRuntime.getClass(arg6), 
-                GlangRuntime.getClass(arg7), 
-                GlangRuntime.getClass(arg8), 
-                GlangRuntime.getClass(arg9), 
-                GlangRuntime.getClass(arg10), 
-                GlangRuntime.getClass(arg11), 
-                GlangRuntime.getClass(arg12)
-            )).invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12);
+            final Class<?> type0 = GlangRuntime.getClass(arg0);
+            final Class<?> type1 = GlangRuntime.getClass(arg1);
+            final Class<?> type2 = GlangRuntime.getClass(arg2);
+            final Class<?> type3 = GlangRuntime.getClass(arg3);
+            final Class<?> type4 = GlangRuntime.getClass(arg4);
+            final Class<?> type5 = GlangRuntime.getClass(arg5);
+            final Class<?> type6 = GlangRuntime.getClass(arg6);
+            final Class<?> type7 = GlangRuntime.getClass(arg7);
+            final Class<?> type8 = GlangRuntime.getClass(arg8);
+            final Class<?> type9 = GlangRuntime.getClass(arg9);
+            final Class<?> type10 = GlangRuntime.getClass(arg10);
+            final Class<?> type11 = GlangRuntime.getClass(arg11);
+            final Class<?> type12 = GlangRuntime.getClass(arg12);
+            int hash = 13;
+            hash = MethodLookup.hashArgType(hash, type0);
+            hash = MethodLookup.hashArgType(hash, type1);
+            hash = MethodLookup.hashArgType(hash, type2);
+            hash = MethodLookup.hashArgType(hash, type3);
+            hash = MethodLookup.hashArgType(hash, type4);
+            hash = MethodLookup.hashArgType(hash, type5);
+            hash = MethodLookup.hashArgType(hash, type6);
+            hash = MethodLookup.hashArgType(hash, type7);
+            hash = MethodLookup.hashArgType(hash, type8);
+            hash = MethodLookup.hashArgType(hash, type9);
+            hash = MethodLookup.hashArgType(hash, type10);
+            hash = MethodLookup.hashArgType(hash, type11);
+            hash = MethodLookup.hashArgType(hash, type12);
+            final MethodLookup.CachedInvoker cached = lookup.findCachedInvoker(hash);
+            if (cached != null && cached.argCount() == 13 &&
+                cached.matchesArg(0, type0) &&
+                cached.matchesArg(1, type1) &&
+                cached.matchesArg(2, type2) &&
+                cached.matchesArg(3, type3) &&
+                cached.matchesArg(4, type4) &&
+                cached.matchesArg(5, type5) &&
+                cached.matchesArg(6, type6) &&
+                cached.matchesArg(7, type7) &&
+                cached.matchesArg(8, type8) &&
+                cached.matchesArg(9, type9) &&
+                cached.matchesArg(10, type10) &&
+                cached.matchesArg(11, type11) &&
+                cached.matchesArg(12, type12)) {
+                return cached.invoker().invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12);
+            }
+            return lookup.resolveInvoker(new Class<?>[] {type0, type1, type2, type3, type4, type5, type6, type7, type8, type9, type10, type11, type12}).invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12);
         }
         throw new UninvokableObjectException("Cannot invoke object of type " + target.getClass().getName());
     }
@@ -305,22 +537,54 @@ public final class ObjectInvokers {
             target = GlangRuntime.findConstructors(clazz);
         }
         if (target instanceof MethodLookup lookup) {
-            return lookup.getInvoker(List.of(
-                GlangRuntime.getClass(arg0), 
-                GlangRuntime.getClass(arg1), 
-                GlangRuntime.getClass(arg2), 
-                GlangRuntime.getClass(arg3), 
-                GlangRuntime.getClass(arg4), 
-                GlangRuntime.getClass(arg5), 
-                GlangRuntime.getClass(arg6), 
-                GlangRuntime.getClass(arg7), 
-                GlangRuntime.getClass(arg8), 
-                GlangRuntime.getClass(arg9), 
-                GlangRuntime.getClass(arg10), 
-                GlangRuntime.getClass(arg11), 
-                GlangRuntime.getClass(arg12), 
-                GlangRuntime.getClass(arg13)
-            )).invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12, arg13);
+            final Class<?> type0 = GlangRuntime.getClass(arg0);
+            final Class<?> type1 = GlangRuntime.getClass(arg1);
+            final Class<?> type2 = GlangRuntime.getClass(arg2);
+            final Class<?> type3 = GlangRuntime.getClass(arg3);
+            final Class<?> type4 = GlangRuntime.getClass(arg4);
+            final Class<?> type5 = GlangRuntime.getClass(arg5);
+            final Class<?> type6 = GlangRuntime.getClass(arg6);
+            final Class<?> type7 = GlangRuntime.getClass(arg7);
+            final Class<?> type8 = GlangRuntime.getClass(arg8);
+            final Class<?> type9 = GlangRuntime.getClass(arg9);
+            final Class<?> type10 = GlangRuntime.getClass(arg10);
+            final Class<?> type11 = GlangRuntime.getClass(arg11);
+            final Class<?> type12 = GlangRuntime.getClass(arg12);
+            final Class<?> type13 = GlangRuntime.getClass(arg13);
+            int hash = 14;
+            hash = MethodLookup.hashArgType(hash, type0);
+            hash = MethodLookup.hashArgType(hash, type1);
+            hash = MethodLookup.hashArgType(hash, type2);
+            hash = MethodLookup.hashArgType(hash, type3);
+            hash = MethodLookup.hashArgType(hash, type4);
+            hash = MethodLookup.hashArgType(hash, type5);
+            hash = MethodLookup.hashArgType(hash, type6);
+            hash = MethodLookup.hashArgType(hash, type7);
+            hash = MethodLookup.hashArgType(hash, type8);
+            hash = MethodLookup.hashArgType(hash, type9);
+            hash = MethodLookup.hashArgType(hash, type10);
+            hash = MethodLookup.hashArgType(hash, type11);
+            hash = MethodLookup.hashArgType(hash, type12);
+            hash = MethodLookup.hashArgType(hash, type13);
+            final MethodLookup.CachedInvoker cached = lookup.findCachedInvoker(hash);
+            if (cached != null && cached.argCount() == 14 &&
+                cached.matchesArg(0, type0) &&
+                cached.matchesArg(1, type1) &&
+                cached.matchesArg(2, type2) &&
+                cached.matchesArg(3, type3) &&
+                cached.matchesArg(4, type4) &&
+                cached.matchesArg(5, type5) &&
+                cached.matchesArg(6, type6) &&
+                cached.matchesArg(7, type7) &&
+                cached.matchesArg(8, type8) &&
+                cached.matchesArg(9, type9) &&
+                cached.matchesArg(10, type10) &&
+                cached.matchesArg(11, type11) &&
+                cached.matchesArg(12, type12) &&
+                cached.matchesArg(13, type13)) {
+                return cached.invoker().invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12, arg13);
+            }
+            return lookup.resolveInvoker(new Class<?>[] {type0, type1, type2, type3, type4, type5, type6, type7, type8, type9, type10, type11, type12, type13}).invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12, arg13);
         }
         throw new UninvokableObjectException("Cannot invoke object of type " + target.getClass().getName());
     }
@@ -333,23 +597,57 @@ public final class ObjectInvokers {
             target = GlangRuntime.findConstructors(clazz);
         }
         if (target instanceof MethodLookup lookup) {
-            return lookup.getInvoker(List.of(
-                GlangRuntime.getClass(arg0), 
-                GlangRuntime.getClass(arg1), 
-                GlangRuntime.getClass(arg2), 
-                GlangRuntime.getClass(arg3), 
-                GlangRuntime.getClass(arg4), 
-                GlangRuntime.getClass(arg5), 
-                GlangRuntime.getClass(arg6), 
-                GlangRuntime.getClass(arg7), 
-                GlangRuntime.getClass(arg8), 
-                GlangRuntime.getClass(arg9), 
-                GlangRuntime.getClass(arg10), 
-                GlangRuntime.getClass(arg11), 
-                GlangRuntime.getClass(arg12), 
-                GlangRuntime.getClass(arg13), 
-                GlangRuntime.getClass(arg14)
-            )).invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12, arg13, arg14);
+            final Class<?> type0 = GlangRuntime.getClass(arg0);
+            final Class<?> type1 = GlangRuntime.getClass(arg1);
+            final Class<?> type2 = GlangRuntime.getClass(arg2);
+            final Class<?> type3 = GlangRuntime.getClass(arg3);
+            final Class<?> type4 = GlangRuntime.getClass(arg4);
+            final Class<?> type5 = GlangRuntime.getClass(arg5);
+            final Class<?> type6 = GlangRuntime.getClass(arg6);
+            final Class<?> type7 = GlangRuntime.getClass(arg7);
+            final Class<?> type8 = GlangRuntime.getClass(arg8);
+            final Class<?> type9 = GlangRuntime.getClass(arg9);
+            final Class<?> type10 = GlangRuntime.getClass(arg10);
+            final Class<?> type11 = GlangRuntime.getClass(arg11);
+            final Class<?> type12 = GlangRuntime.getClass(arg12);
+            final Class<?> type13 = GlangRuntime.getClass(arg13);
+            final Class<?> type14 = GlangRuntime.getClass(arg14);
+            int hash = 15;
+            hash = MethodLookup.hashArgType(hash, type0);
+            hash = MethodLookup.hashArgType(hash, type1);
+            hash = MethodLookup.hashArgType(hash, type2);
+            hash = MethodLookup.hashArgType(hash, type3);
+            hash = MethodLookup.hashArgType(hash, type4);
+            hash = MethodLookup.hashArgType(hash, type5);
+            hash = MethodLookup.hashArgType(hash, type6);
+            hash = MethodLookup.hashArgType(hash, type7);
+            hash = MethodLookup.hashArgType(hash, type8);
+            hash = MethodLookup.hashArgType(hash, type9);
+            hash = MethodLookup.hashArgType(hash, type10);
+            hash = MethodLookup.hashArgType(hash, type11);
+            hash = MethodLookup.hashArgType(hash, type12);
+            hash = MethodLookup.hashArgType(hash, type13);
+            hash = MethodLookup.hashArgType(hash, type14);
+            final MethodLookup.CachedInvoker cached = lookup.findCachedInvoker(hash);
+            if (cached != null && cached.argCount() == 15 &&
+                cached.matchesArg(0, type0) &&
+                cached.matchesArg(1, type1) &&
+                cached.matchesArg(2, type2) &&
+                cached.matchesArg(3, type3) &&
+                cached.matchesArg(4, type4) &&
+                cached.matchesArg(5, type5) &&
+                cached.matchesArg(6, type6) &&
+                cached.matchesArg(7, type7) &&
+                cached.matchesArg(8, type8) &&
+                cached.matchesArg(9, type9) &&
+                cached.matchesArg(10, type10) &&
+                cached.matchesArg(11, type11) &&
+                cached.matchesArg(12, type12) &&
+                cached.matchesArg(13, type13) &&
+                cached.matchesArg(14, type14)) {
+                return cached.invoker().invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12, arg13, arg14);
+            }
+            return lookup.resolveInvoker(new Class<?>[] {type0, type1, type2, type3, type4, type5, type6, type7, type8, type9, type10, type11, type12, type13, type14}).invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12, arg13, arg14);
         }
         throw new UninvokableObjectException("Cannot invoke object of type " + target.getClass().getName());
     }
@@ -362,24 +660,60 @@ public final class ObjectInvokers {
             target = GlangRuntime.findConstructors(clazz);
         }
         if (target instanceof MethodLookup lookup) {
-            return lookup.getInvoker(List.of(
-                GlangRuntime.getClass(arg0), 
-                GlangRuntime.getClass(arg1), 
-                GlangRuntime.getClass(arg2), 
-                GlangRuntime.getClass(arg3), 
-                GlangRuntime.getClass(arg4), 
-                GlangRuntime.getClass(arg5), 
-                GlangRuntime.getClass(arg6), 
-                GlangRuntime.getClass(arg7), 
-                GlangRuntime.getClass(arg8), 
-                GlangRuntime.getClass(arg9), 
-                GlangRuntime.getClass(arg10), 
-                GlangRuntime.getClass(arg11), 
-                GlangRuntime.getClass(arg12), 
-                GlangRuntime.getClass(arg13), 
-                GlangRuntime.getClass(arg14), 
-                GlangRuntime.getClass(arg15)
-            )).invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12, arg13, arg14, arg15);
+            final Class<?> type0 = GlangRuntime.getClass(arg0);
+            final Class<?> type1 = GlangRuntime.getClass(arg1);
+            final Class<?> type2 = GlangRuntime.getClass(arg2);
+            final Class<?> type3 = GlangRuntime.getClass(arg3);
+            final Class<?> type4 = GlangRuntime.getClass(arg4);
+            final Class<?> type5 = GlangRuntime.getClass(arg5);
+            final Class<?> type6 = GlangRuntime.getClass(arg6);
+            final Class<?> type7 = GlangRuntime.getClass(arg7);
+            final Class<?> type8 = GlangRuntime.getClass(arg8);
+            final Class<?> type9 = GlangRuntime.getClass(arg9);
+            final Class<?> type10 = GlangRuntime.getClass(arg10);
+            final Class<?> type11 = GlangRuntime.getClass(arg11);
+            final Class<?> type12 = GlangRuntime.getClass(arg12);
+            final Class<?> type13 = GlangRuntime.getClass(arg13);
+            final Class<?> type14 = GlangRuntime.getClass(arg14);
+            final Class<?> type15 = GlangRuntime.getClass(arg15);
+            int hash = 16;
+            hash = MethodLookup.hashArgType(hash, type0);
+            hash = MethodLookup.hashArgType(hash, type1);
+            hash = MethodLookup.hashArgType(hash, type2);
+            hash = MethodLookup.hashArgType(hash, type3);
+            hash = MethodLookup.hashArgType(hash, type4);
+            hash = MethodLookup.hashArgType(hash, type5);
+            hash = MethodLookup.hashArgType(hash, type6);
+            hash = MethodLookup.hashArgType(hash, type7);
+            hash = MethodLookup.hashArgType(hash, type8);
+            hash = MethodLookup.hashArgType(hash, type9);
+            hash = MethodLookup.hashArgType(hash, type10);
+            hash = MethodLookup.hashArgType(hash, type11);
+            hash = MethodLookup.hashArgType(hash, type12);
+            hash = MethodLookup.hashArgType(hash, type13);
+            hash = MethodLookup.hashArgType(hash, type14);
+            hash = MethodLookup.hashArgType(hash, type15);
+            final MethodLookup.CachedInvoker cached = lookup.findCachedInvoker(hash);
+            if (cached != null && cached.argCount() == 16 &&
+                cached.matchesArg(0, type0) &&
+                cached.matchesArg(1, type1) &&
+                cached.matchesArg(2, type2) &&
+                cached.matchesArg(3, type3) &&
+                cached.matchesArg(4, type4) &&
+                cached.matchesArg(5, type5) &&
+                cached.matchesArg(6, type6) &&
+                cached.matchesArg(7, type7) &&
+                cached.matchesArg(8, type8) &&
+                cached.matchesArg(9, type9) &&
+                cached.matchesArg(10, type10) &&
+                cached.matchesArg(11, type11) &&
+                cached.matchesArg(12, type12) &&
+                cached.matchesArg(13, type13) &&
+                cached.matchesArg(14, type14) &&
+                cached.matchesArg(15, type15)) {
+                return cached.invoker().invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12, arg13, arg14, arg15);
+            }
+            return lookup.resolveInvoker(new Class<?>[] {type0, type1, type2, type3, type4, type5, type6, type7, type8, type9, type10, type11, type12, type13, type14, type15}).invoke(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12, arg13, arg14, arg15);
         }
         throw new UninvokableObjectException("Cannot invoke object of type " + target.getClass().getName());
     }
@@ -0,0 +1,136 @@
+package glang.runtime;
+
+import glang.runtime.extension.ExtensionMethodRegistry;
+import glang.runtime.lookup.InstanceMethodLookup;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.SwitchPoint;
+import java.util.List;
+
+public final class OperatorBootstrap {
+    private static final MethodType BINARY_OPERATOR_MT = MethodType.methodType(Object.class, Object.class, Object.class);
+    private static final MethodType BINARY_CONDITION_MT = MethodType.methodType(boolean.class, Object.class, Object.class);
+
+    private static final MethodHandle BINARY_OPERATOR;
+    private static final MethodHandle PROMOTING_BINARY_OPERATOR;
+    private static final MethodHandle IS_TRUTHY;
+
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            BINARY_OPERATOR = lookup.findStatic(
+                GlangRuntime.class, "binaryOperator",
+                MethodType.methodType(Object.class, Object.class, Object.class, String.class)
+            );
+            PROMOTING_BINARY_OPERATOR = lookup.findStatic(
+                GlangRuntime.class, "promotingBinaryOperator",
+                MethodType.methodType(Object.class, Object.class, Object.class, String.class)
+            );
+            IS_TRUTHY = lookup.findStatic(
+                GlangRuntime.class, "isTruthy", MethodType.methodType(boolean.class, Object.class)
+            );
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private OperatorBootstrap() {
+    }
+
+    public static CallSite binaryOperator(MethodHandles.Lookup lookup, String name, MethodType type, String opName) {
+        if (!type.equals(BINARY_OPERATOR_MT)) {
+            throw new IllegalArgumentException("binaryOperator type != " + BINARY_OPERATOR_MT);
+        }
+        return new BinaryOperatorCallSite(type, opName, false);
+    }
+
+    /**
+     * A binary operator whose result is only used as a condition, such as a comparison in an {@code if}. This avoids
+     * boxing the result, and the {@code isTruthy} call on it, when the operator returns a {@code boolean}.
+     */
+    public static CallSite binaryCondition(MethodHandles.Lookup lookup, String name, MethodType type, String opName) {
+        if (!type.equals(BINARY_CONDITION_MT)) {
+            throw new IllegalArgumentException("binaryCondition type != " + BINARY_CONDITION_MT);
+        }
+        return new BinaryOperatorCallSite(type, opName, false);
+    }
+
+    /**
+     * {@link #binaryOperator} for namespaces compiled with {@code ArithmeticMode.PROMOTING}.
+     */
+    public static CallSite promotingOperator(MethodHandles.Lookup lookup, String name, MethodType type, String opName) {
+        if (!type.equals(BINARY_OPERATOR_MT)) {
+            throw new IllegalArgumentException("promotingOperator type != " + BINARY_OPERATOR_MT);
+        }
+        return new BinaryOperatorCallSite(type, opName, true);
+    }
+
+    /**
+     * {@link #binaryCondition} for namespaces compiled with {@code ArithmeticMode.PROMOTING}.
+     */
+    public static CallSite promotingCondition(MethodHandles.Lookup lookup, String name, MethodType type, String opName) {
+        if (!type.equals(BINARY_CONDITION_MT)) {
+            throw new IllegalArgumentException("promotingCondition type != " + BINARY_CONDITION_MT);
+        }
+        return new BinaryOperatorCallSite(type, opName, true);
+    }
+
+    private static final class BinaryOperatorCallSite extends InlineCacheCallSite {
+        private final String opName;
+        private final boolean promoting;
+
+        BinaryOperatorCallSite(MethodType type, String opName, boolean promoting) {
+            super(type);
+            this.opName = opName;
+            this.promoting = promoting;
+        }
+
+        @Override
+        protected CacheEntry link(Object[] args) throws Throwable {
+            final Object lhs = args[0];
+            final Object rhs = args[1];
+            final Class<?> lhsClass = GlangRuntime.getClass(lhs);
+            final Class<?> rhsClass = GlangRuntime.getClass(rhs);
+
+            if (lhs == null) {
+                throw new NullPointerException("Cannot invoke method '" + opName + "' on null");
+            }
+            final boolean isClass = lhs instanceof Class<?>;
+            final InstanceMethodLookup methods = InstanceMethodLookup.get(isClass ? (Class<?>)lhs : lhsClass, isClass);
+            // Extension methods take priority (and intrinsics stand in for them), so re-link if they change
+            final SwitchPoint switchPoint = methods.getExtensionSwitchPoint(opName);
+
+            MethodHandle target = promoting ? PromotingArithmetic.find(lhsClass, rhsClass, opName) : null;
+            if (target == null) {
+                target = OperatorIntrinsics.find(lhsClass, rhsClass, opName);
+            }
+            if (target != null && !ExtensionMethodRegistry.REGISTRY.hasDefaultExtensions(lhsClass, opName)) {
+                target = null;
+            }
+            if (target == null) {
+                target = methods.getLookup(opName, false).getInvoker(List.of(lhsClass, rhsClass));
+            }
+            // Operators on a Class look up its static methods, so the Class itself must be guarded on
+            final MethodHandle lhsGuard = isClass ? guardIdentity(0, lhs) : guardClass(0, lhs);
+            return new CacheEntry(guardAll(lhsGuard, guardClass(1, rhs)), adaptResult(target), switchPoint);
+        }
+
+        @Override
+        protected MethodHandle megamorphic() {
+            return adaptResult(MethodHandles.insertArguments(
+                promoting ? PROMOTING_BINARY_OPERATOR : BINARY_OPERATOR, 2, opName
+            ));
+        }
+
+        private MethodHandle adaptResult(MethodHandle target) {
+            // A Boolean may be null, which is falsy rather than an error, so only boolean skips isTruthy
+            if (type().returnType() == boolean.class && target.type().returnType() != boolean.class) {
+                target = MethodHandles.filterReturnValue(target.asType(target.type().generic()), IS_TRUTHY);
+            }
+            return target.asType(type());
+        }
+    }
+}
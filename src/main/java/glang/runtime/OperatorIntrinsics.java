@@ -0,0 +1,162 @@
+package glang.runtime;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+// These must behave exactly like the extension methods they shadow (NumberNs, ComparableNs, Integer.sum, etc.)
+final class OperatorIntrinsics {
+    private static final Map<Class<?>, Map<String, MethodHandle>> INTRINSICS = new HashMap<>();
+
+    static {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (final Method method : OperatorIntrinsics.class.getDeclaredMethods()) {
+            if (!Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 2) continue;
+            final Class<?> operandType = method.getParameterTypes()[0];
+            if (!operandType.isPrimitive() || method.getParameterTypes()[1] != operandType) continue;
+            try {
+                INTRINSICS.computeIfAbsent(RuntimeUtil.TO_WRAPPER_MAP.get(operandType), k -> new HashMap<>())
+                    .put(method.getName(), lookup.unreflect(method));
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private OperatorIntrinsics() {
+    }
+
+    static MethodHandle find(Class<?> lhs, Class<?> rhs, String opName) {
+        if (lhs != rhs) {
+            return null;
+        }
+        final Map<String, MethodHandle> forType = INTRINSICS.get(lhs);
+        return forType != null ? forType.get(opName) : null;
+    }
+
+    //region int
+    static int add(int a, int b) {
+        return a + b;
+    }
+
+    static int subtract(int a, int b) {
+        return a - b;
+    }
+
+    static int multiply(int a, int b) {
+        return a * b;
+    }
+
+    static int divide(int a, int b) {
+        return a / b;
+    }
+
+    static int modulo(int a, int b) {
+        return Math.floorMod(a, b);
+    }
+
+    static boolean equals(int a, int b) {
+        return a == b;
+    }
+
+    static boolean lessThan(int a, int b) {
+        return a < b;
+    }
+
+    static boolean greaterThan(int a, int b) {
+        return a > b;
+    }
+
+    static boolean lessThanEqual(int a, int b) {
+        return a <= b;
+    }
+
+    static boolean greaterThanEqual(int a, int b) {
+        return a >= b;
+    }
+    //endregion
+
+    //region long
+    static long add(long a, long b) {
+        return a + b;
+    }
+
+    static long subtract(long a, long b) {
+        return a - b;
+    }
+
+    static long multiply(long a, long b) {
+        return a * b;
+    }
+
+    static long divide(long a, long b) {
+        return a / b;
+    }
+
+    static long modulo(long a, long b) {
+        return Math.floorMod(a, b);
+    }
+
+    static boolean equals(long a, long b) {
+        return a == b;
+    }
+
+    static boolean lessThan(long a, long b) {
+        return a < b;
+    }
+
+    static boolean greaterThan(long a, long b) {
+        return a > b;
+    }
+
+    static boolean lessThanEqual(long a, long b) {
+        return a <= b;
+    }
+
+    static boolean greaterThanEqual(long a, long b) {
+        return a >= b;
+    }
+    //endregion
+
+    //region double
+    static double add(double a, double b) {
+        return a + b;
+    }
+
+    static double subtract(double a, double b) {
+        return a - b;
+    }
+
+    static double multiply(double a, double b) {
+        return a * b;
+    }
+
+    static double divide(double a, double b) {
+        return a / b;
+    }
+
+    // Double.equals and Double.compareTo, not ==, <, etc., since those are what the generic path calls
+    static boolean equals(double a, double b) {
+        return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+    }
+
+    static boolean lessThan(double a, double b) {
+        return Double.compare(a, b) < 0;
+    }
+
+    static boolean greaterThan(double a, double b) {
+        return Double.compare(a, b) > 0;
+    }
+
+    static boolean lessThanEqual(double a, double b) {
+        return Double.compare(a, b) <= 0;
+    }
+
+    static boolean greaterThanEqual(double a, double b) {
+        return Double.compare(a, b) >= 0;
+    }
+    //endregion
+}
@@ -0,0 +1,210 @@
+package glang.runtime;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+
+// Operators for ArithmeticMode.PROMOTING. Anything that can't overflow, and isn't between mixed types, is left to the
+// normal operators (and OperatorIntrinsics).
+final class PromotingArithmetic {
+    private static final int INT_RANK = 0;
+    private static final int LONG_RANK = 1;
+    private static final int BIG_RANK = 2;
+
+    private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE);
+
+    static final Object NOT_HANDLED = new Object();
+
+    private static final Map<Class<?>, Map<String, MethodHandle>> OPERATORS = new HashMap<>();
+
+    static {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (final Method method : PromotingArithmetic.class.getDeclaredMethods()) {
+            if (!Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 2) continue;
+            final Class<?> operandType = method.getParameterTypes()[0];
+            if (method.getParameterTypes()[1] != operandType) continue;
+            try {
+                OPERATORS.computeIfAbsent(operandType, k -> new HashMap<>())
+                    .put(method.getName(), lookup.unreflect(method));
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private PromotingArithmetic() {
+    }
+
+    /**
+     * @return A handle of type {@code (lhs, rhs)R}, or {@code null} if the normal operator should be used
+     */
+    static MethodHandle find(Class<?> lhs, Class<?> rhs, String opName) {
+        final int lhsRank = rank(lhs);
+        final int rhsRank = rank(rhs);
+        if (lhsRank < 0 || rhsRank < 0) {
+            return null;
+        }
+        final int rank = Math.max(lhsRank, rhsRank);
+        MethodHandle result = switch (rank) {
+            case INT_RANK -> OPERATORS.get(int.class).get(opName);
+            case LONG_RANK -> {
+                final MethodHandle promoting = OPERATORS.get(long.class).get(opName);
+                yield promoting != null || lhsRank == rhsRank
+                    ? promoting
+                    : OperatorIntrinsics.find(Long.class, Long.class, opName);
+            }
+            default -> OPERATORS.get(Number.class).get(opName);
+        };
+        if (result == null) {
+            return null;
+        }
+        return result.asType(MethodType.methodType(result.type().returnType(), lhs, rhs));
+    }
+
+    /**
+     * The same as {@link #find} followed by invoking it, for megamorphic call sites.
+     *
+     * @return The result, or {@link #NOT_HANDLED} if the normal operator should be used
+     */
+    static Object invoke(Object lhs, Object rhs, String opName) throws Throwable {
+        if (lhs == null || rhs == null) {
+            return NOT_HANDLED;
+        }
+        final MethodHandle handle = find(lhs.getClass(), rhs.getClass(), opName);
+        return handle != null ? handle.invoke(lhs, rhs) : NOT_HANDLED;
+    }
+
+    private static int rank(Class<?> clazz) {
+        if (clazz == Integer.class) {
+            return INT_RANK;
+        }
+        if (clazz == Long.class) {
+            return LONG_RANK;
+        }
+        if (clazz != null && BigInteger.class.isAssignableFrom(clazz)) {
+            return BIG_RANK;
+        }
+        return -1;
+    }
+
+    //region int
+    // Overflow is checked for directly rather than by catching the ArithmeticException from Math.*Exact, since
+    // building an exception on every overflow is slow
+    static Object add(int a, int b) {
+        return narrow((long)a + b);
+    }
+
+    static Object subtract(int a, int b) {
+        return narrow((long)a - b);
+    }
+
+    static Object multiply(int a, int b) {
+        return narrow((long)a * b);
+    }
+
+    static Object divide(int a, int b) {
+        if (a == Integer.MIN_VALUE && b == -1) {
+            return -(long)Integer.MIN_VALUE;
+        }
+        return a / b;
+    }
+
+    // The exact result of an int operation, as an Integer if it fits
+    private static Object narrow(long result) {
+        if ((int)result == result) {
+            return (int)result;
+        }
+        return result;
+    }
+    //endregion
+
+    //region long
+    static Object add(long a, long b) {
+        final long result = a + b;
+        // Overflowed if both operands have a different sign than the result
+        if (((a ^ result) & (b ^ result)) < 0) {
+            return BigInteger.valueOf(a).add(BigInteger.valueOf(b));
+        }
+        return result;
+    }
+
+    static Object subtract(long a, long b) {
+        final long result = a - b;
+        // Overflowed if the operands have different signs, and the result's sign isn't a's
+        if (((a ^ b) & (a ^ result)) < 0) {
+            return BigInteger.valueOf(a).subtract(BigInteger.valueOf(b));
+        }
+        return result;
+    }
+
+    static Object multiply(long a, long b) {
+        final long result = a * b;
+        // Fits if the high half of the full product is just the sign extension of the low half
+        if (Math.multiplyHigh(a, b) != result >> 63) {
+            return BigInteger.valueOf(a).multiply(BigInteger.valueOf(b));
+        }
+        return result;
+    }
+
+    static Object divide(long a, long b) {
+        if (a == Long.MIN_VALUE && b == -1) {
+            return LONG_MIN.negate();
+        }
+        return a / b;
+    }
+    //endregion
+
+    //region BigInteger
+    static BigInteger add(Number a, Number b) {
+        return toBigInteger(a).add(toBigInteger(b));
+    }
+
+    static BigInteger subtract(Number a, Number b) {
+        return toBigInteger(a).subtract(toBigInteger(b));
+    }
+
+    static BigInteger multiply(Number a, Number b) {
+        return toBigInteger(a).multiply(toBigInteger(b));
+    }
+
+    static BigInteger divide(Number a, Number b) {
+        return toBigInteger(a).divide(toBigInteger(b));
+    }
+
+    // Math.floorMod semantics, like the int and long versions
+    static BigInteger modulo(Number a, Number b) {
+        final BigInteger divisor = toBigInteger(b);
+        final BigInteger remainder = toBigInteger(a).remainder(divisor);
+        return remainder.signum() != 0 && remainder.signum() != divisor.signum() ? remainder.add(divisor) : remainder;
+    }
+
+    static boolean equals(Number a, Number b) {
+        return toBigInteger(a).equals(toBigInteger(b));
+    }
+
+    static boolean lessThan(Number a, Number b) {
+        return toBigInteger(a).compareTo(toBigInteger(b)) < 0;
+    }
+
+    static boolean greaterThan(Number a, Number b) {
+        return toBigInteger(a).compareTo(toBigInteger(b)) > 0;
+    }
+
+    static boolean lessThanEqual(Number a, Number b) {
+        return toBigInteger(a).compareTo(toBigInteger(b)) <= 0;
+    }
+
+    static boolean greaterThanEqual(Number a, Number b) {
+        return toBigInteger(a).compareTo(toBigInteger(b)) >= 0;
+    }
+
+    private static BigInteger toBigInteger(Number n) {
+        return n instanceof BigInteger big ? big : BigInteger.valueOf(n.longValue());
+    }
+    //endregion
+}
@@ -0,0 +1,264 @@
+package glang.runtime.cl;
+
+import glang.compiler.ArithmeticMode;
+import glang.compiler.bytecode.GlangCompiler;
+import glang.util.CacheDirectory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * A persistent cache of compiled namespaces, keyed by the source, the namespace path, its {@link ArithmeticMode}, and
+ * the compiler that generated them. Entries are written atomically, so multiple JVMs can safely share a cache directory. Once the
+ * cache grows past {@code -Dglang.classCache.maxSize} bytes, the least recently used entries are deleted.
+ */
+public final class CompiledClassCache {
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAGIC = 0x474C4343; // GLCC
+    private static final String SUFFIX = ".glcc";
+    private static final long MAX_SIZE = Long.getLong("glang.classCache.maxSize", 64L * 1024 * 1024);
+    private static final long STALE_TEMP_MILLIS = 60 * 60 * 1000;
+    private static final String COMPILER_PACKAGE_PATH = "glang/compiler";
+
+    private static volatile CompiledClassCache defaultCache;
+
+    private final Path directory;
+    private final long maxSize;
+
+    public CompiledClassCache(Path directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return The cache in {@link CacheDirectory}, or {@code null} if caching is disabled or the compiler couldn't be
+     * fingerprinted
+     */
+    public static CompiledClassCache getDefault() {
+        if (defaultCache == null) {
+            final Path cacheDir = CacheDirectory.get();
+            if (cacheDir == null || getCompilerFingerprint() == null) {
+                return null;
+            }
+            synchronized (CompiledClassCache.class) {
+                if (defaultCache == null) {
+                    defaultCache = new CompiledClassCache(cacheDir.resolve("classes"), MAX_SIZE);
+                }
+            }
+        }
+        return defaultCache;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public String computeKey(String namespacePath, String sourceFile, String source) {
+        return computeKey(namespacePath, sourceFile, ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @param source The UTF-8 encoded source. Its position isn't changed.
+     * @return The key, or {@code null} if the compiler couldn't be fingerprinted, in which case nothing should be cached
+     */
+    public String computeKey(String namespacePath, String sourceFile, ByteBuffer source) {
+        final byte[] compilerFingerprint = getCompilerFingerprint();
+        if (compilerFingerprint == null) {
+            return null;
+        }
+        final MessageDigest digest = sha256();
+        digest.update(compilerFingerprint);
+        updateString(digest, namespacePath);
+        updateString(digest, ArithmeticMode.forNamespace(namespacePath).name());
+        updateString(digest, sourceFile != null ? sourceFile : "");
+        updateBytes(digest, source.duplicate());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * @return The cached classes, or {@code null} if {@code key} isn't cached (or the entry couldn't be read)
+     */
+    public Map<String, byte[]> load(String key) {
+        final Path path = directory.resolve(key + SUFFIX);
+        final Map<String, byte[]> result = new HashMap<>();
+        try (DataInputStream is = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (is.readInt() != MAGIC || is.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            final int count = is.readInt();
+            for (int i = 0; i < count; i++) {
+                final String className = is.readUTF();
+                final byte[] bytes = new byte[is.readInt()];
+                is.readFully(bytes);
+                result.put(className, bytes);
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+        }
+        return result;
+    }
+
+    /**
+     * Stores {@code classes} under {@code key}. Failures are ignored, since the cache is only an optimization.
+     */
+    public void store(String key, Map<String, byte[]> classes) {
+        Path tempFile = null;
+        try {
+            Files.createDirectories(directory);
+            tempFile = Files.createTempFile(directory, key, ".tmp");
+            try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                os.writeInt(MAGIC);
+                os.writeInt(FORMAT_VERSION);
+                os.writeInt(classes.size());
+                for (final var entry : classes.entrySet()) {
+                    os.writeUTF(entry.getKey());
+                    os.writeInt(entry.getValue().length);
+                    os.write(entry.getValue());
+                }
+            }
+            try {
+                Files.move(tempFile, directory.resolve(key + SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, directory.resolve(key + SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+            }
+            tempFile = null;
+        } catch (IOException ignored) {
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        evict();
+    }
+
+    private void evict() {
+        final List<CacheFile> entries = new ArrayList<>();
+        long totalSize = 0;
+        final long now = System.currentTimeMillis();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (final Path file : (Iterable<Path>)files::iterator) {
+                final String fileName = file.getFileName().toString();
+                try {
+                    final long lastModified = Files.getLastModifiedTime(file).toMillis();
+                    if (fileName.endsWith(SUFFIX)) {
+                        final long size = Files.size(file);
+                        entries.add(new CacheFile(file, size, lastModified));
+                        totalSize += size;
+                    } else if (fileName.endsWith(".tmp") && now - lastModified > STALE_TEMP_MILLIS) {
+                        // Left behind by a launcher that died mid-write
+                        Files.deleteIfExists(file);
+                    }
+                } catch (IOException ignored) {
+                }
+            }
+        } catch (IOException e) {
+            return;
+        }
+        if (totalSize <= maxSize) return;
+        entries.sort(Comparator.comparingLong(CacheFile::lastModified));
+        for (final CacheFile entry : entries) {
+            if (totalSize <= maxSize) break;
+            try {
+                Files.deleteIfExists(entry.path);
+            } catch (IOException ignored) {
+            }
+            totalSize -= entry.size;
+        }
+    }
+
+    /**
+     * @return The compiler fingerprint in hex, or {@code null} if it couldn't be computed
+     */
+    static String getCompilerFingerprintHex() {
+        final byte[] fingerprint = getCompilerFingerprint();
+        return fingerprint != null ? HexFormat.of().formatHex(fingerprint) : null;
+    }
+
+    private static byte[] getCompilerFingerprint() {
+        return CompilerFingerprint.VALUE;
+    }
+
+    // Everything under glang/compiler can affect the generated bytecode, so all of it is hashed, from wherever the
+    // compiler was loaded (a directory or a jar). Returns null if the classes can't be found or read, since the cache
+    // is only an optimization.
+    private static byte[] computeCompilerFingerprint() {
+        try {
+            final Path location = Path.of(
+                GlangCompiler.class.getProtectionDomain().getCodeSource().getLocation().toURI()
+            );
+            final MessageDigest digest = sha256();
+            if (Files.isDirectory(location)) {
+                hashCompilerClasses(digest, location);
+            } else {
+                try (FileSystem jar = FileSystems.newFileSystem(location)) {
+                    hashCompilerClasses(digest, jar.getPath("/"));
+                }
+            }
+            return digest.digest();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static void hashCompilerClasses(MessageDigest digest, Path root) throws IOException {
+        final Path compilerRoot = root.resolve(COMPILER_PACKAGE_PATH);
+        final List<String> classFiles;
+        try (Stream<Path> files = Files.walk(compilerRoot)) {
+            classFiles = files
+                .filter(path -> path.toString().endsWith(".class"))
+                .map(path -> compilerRoot.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/"))
+                .sorted()
+                .toList();
+        }
+        if (classFiles.isEmpty()) {
+            throw new IllegalStateException("No compiler classes in " + compilerRoot);
+        }
+        for (final String classFile : classFiles) {
+            updateString(digest, classFile);
+            updateBytes(digest, ByteBuffer.wrap(Files.readAllBytes(compilerRoot.resolve(classFile))));
+        }
+    }
+
+    private static void updateString(MessageDigest digest, String value) {
+        updateBytes(digest, ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void updateBytes(MessageDigest digest, ByteBuffer bytes) {
+        final int length = bytes.remaining();
+        digest.update((byte)(length >>> 24));
+        digest.update((byte)(length >>> 16));
+        digest.update((byte)(length >>> 8));
+        digest.update((byte)length);
+        digest.update(bytes);
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError("SHA-256 is required to be supported", e);
+        }
+    }
+
+    private record CacheFile(Path path, long size, long lastModified) {
+    }
+
+    // Computed once, when it's first needed
+    private static final class CompilerFingerprint {
+        static final byte[] VALUE = computeCompilerFingerprint();
+    }
+}
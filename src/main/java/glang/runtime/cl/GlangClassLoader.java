@@ -1,5 +1,6 @@
 package glang.runtime.cl;
 
+import glang.compiler.ArithmeticMode;
 import glang.compiler.bytecode.GlangCompiler;
 import glang.compiler.error.CompileFailedException;
 import org.objectweb.asm.ClassWriter;
@@ -8,14 +9,22 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class GlangClassLoader extends URLClassLoader {
     private static final String SUFFIX = ".glang";
 
-    private final Map<String, byte[]> waitingClasses = new HashMap<>();
+    static {
+        registerAsParallelCapable();
+    }
+
+    private final Map<String, byte[]> waitingClasses = new ConcurrentHashMap<>();
+    private volatile Map<String, String> precompiledIndex;
+    private volatile CompiledClassCache classCache = CompiledClassCache.getDefault();
 
     public GlangClassLoader(URL[] urls, ClassLoader parent) {
         super("glang", urls, parent);
@@ -29,6 +38,17 @@ public class GlangClassLoader extends URLClassLoader {
         this(new URL[0], getSystemClassLoader());
     }
 
+    public CompiledClassCache getClassCache() {
+        return classCache;
+    }
+
+    /**
+     * @param classCache The cache to use for compiled namespaces, or {@code null} to always compile from source
+     */
+    public void setClassCache(CompiledClassCache classCache) {
+        this.classCache = classCache;
+    }
+
     public Class<?> loadClassFromResource(String path) throws ClassNotFoundException {
         if (!path.endsWith(".glang")) {
             throw new IllegalArgumentException("Path does not end with .glang");
@@ -62,11 +82,84 @@ public class GlangClassLoader extends URLClassLoader {
         if (result != null) {
             return result;
         }
-        final Reference ref = findSourceString(name);
+        Reference ref;
+        try {
+            ref = findSourceString(name);
+        } catch (ClassNotFoundException e) {
+            ref = null;
+        }
+        result = findPrecompiled(name, ref);
+        if (result != null) {
+            return result;
+        }
+        if (ref == null) {
+            throw new ClassNotFoundException(name);
+        }
+        // A namespace compiles to several classes at once, so it needs a lock of its own on top of the per-class one
+        synchronized (getClassLoadingLock(ref.namespacePath)) {
+            result = waitingClasses.remove(name);
+            if (result != null) {
+                return result;
+            }
+            return compileNamespace(name, ref);
+        }
+    }
+
+    private byte[] findPrecompiled(String name, Reference ref) {
+        final String sourceHash = getPrecompiledIndex().get(name);
+        if (sourceHash == null) {
+            return null;
+        }
+        if (
+            ref != null &&
+                !sourceHash.equals(PrecompiledIndex.hashSource(ref.source(), ArithmeticMode.forNamespace(ref.namespacePath)))
+        ) {
+            return null; // The source or the namespace's ArithmeticMode was changed since it was precompiled
+        }
+        try (InputStream is = getResourceAsStream(name.replace('.', '/') + ".class")) {
+            return is != null ? is.readAllBytes() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private Map<String, String> getPrecompiledIndex() {
+        if (precompiledIndex == null) {
+            synchronized (this) {
+                if (precompiledIndex == null) {
+                    final Map<String, String> index = new HashMap<>();
+                    try {
+                        final Enumeration<URL> urls = getResources(PrecompiledIndex.PATH);
+                        while (urls.hasMoreElements()) {
+                            try (InputStream is = urls.nextElement().openStream()) {
+                                index.putAll(PrecompiledIndex.read(is));
+                            }
+                        }
+                    } catch (IOException ignored) {
+                    }
+                    precompiledIndex = index;
+                }
+            }
+        }
+        return precompiledIndex;
+    }
+
+    private byte[] compileNamespace(String name, Reference ref) throws ClassNotFoundException {
+        final CompiledClassCache classCache = this.classCache;
+        final String cacheKey = classCache != null
+            ? classCache.computeKey(ref.namespacePath, ref.sourceFile, ref.source())
+            : null;
+        if (cacheKey != null) {
+            final Map<String, byte[]> cached = classCache.load(cacheKey);
+            if (cached != null && cached.containsKey(name)) {
+                waitingClasses.putAll(cached);
+                return waitingClasses.remove(name);
+            }
+        }
         final Map<String, ClassWriter> writers = new HashMap<>();
         try {
             final GlangCompiler compiler = new GlangCompiler(
-                ref.namespacePath, ref.source,
+                ref.namespacePath, ref.source(),
                 c -> writers.computeIfAbsent(
                     c, c2 -> new ClassWriter(ClassWriter.COMPUTE_FRAMES)
                 )
@@ -75,8 +168,13 @@ public class GlangClassLoader extends URLClassLoader {
         } catch (CompileFailedException e) {
             throw new ClassNotFoundException(name, e);
         }
-        writers.forEach((c, writer) -> waitingClasses.put(c, writer.toByteArray()));
-        result = waitingClasses.remove(name);
+        final Map<String, byte[]> compiled = new HashMap<>();
+        writers.forEach((c, writer) -> compiled.put(c, writer.toByteArray()));
+        if (cacheKey != null) {
+            classCache.store(cacheKey, compiled);
+        }
+        waitingClasses.putAll(compiled);
+        final byte[] result = waitingClasses.remove(name);
         if (result != null) {
             return result;
         }
@@ -114,7 +212,7 @@ public class GlangClassLoader extends URLClassLoader {
             if (is != null) {
                 return new Reference(
                     name.substring(name.lastIndexOf('/') + 1),
-                    new String(is.readAllBytes(), StandardCharsets.UTF_8),
+                    is.readAllBytes(),
                     name.substring(0, name.length() - SUFFIX.length()).replace('/', '.')
                 );
             }
@@ -123,6 +221,10 @@ public class GlangClassLoader extends URLClassLoader {
         return null;
     }
 
-    private record Reference(String sourceFile, String source, String namespacePath) {
+    // The source is kept as UTF-8, which is what's hashed, and the tokenizer decodes it as it goes
+    private record Reference(String sourceFile, byte[] sourceBytes, String namespacePath) {
+        ByteBuffer source() {
+            return ByteBuffer.wrap(sourceBytes).asReadOnlyBuffer();
+        }
     }
 }
@@ -0,0 +1,72 @@
+package glang.runtime.cl;
+
+import glang.compiler.ArithmeticMode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The index of ahead-of-time compiled classes, mapping each class name to the hash of the source it was compiled
+ * from and its {@link ArithmeticMode}. {@link GlangClassLoader} uses precompiled classes in place of compiling their
+ * source, as long as the source is missing or unchanged, and the namespace's mode is the same.
+ */
+public final class PrecompiledIndex {
+    public static final String PATH = "META-INF/glang-index.properties";
+    private static final String COMPILER_KEY = "$compiler";
+
+    private PrecompiledIndex() {
+    }
+
+    public static String hashSource(String source, ArithmeticMode mode) {
+        return hashSource(ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)), mode);
+    }
+
+    /**
+     * @param source The UTF-8 encoded source. Its position isn't changed.
+     */
+    public static String hashSource(ByteBuffer source, ArithmeticMode mode) {
+        final MessageDigest digest = CompiledClassCache.sha256();
+        digest.update(mode.name().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte)0);
+        digest.update(source.duplicate());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static void write(OutputStream os, Map<String, String> sourceHashes) throws IOException {
+        final String compilerFingerprint = CompiledClassCache.getCompilerFingerprintHex();
+        if (compilerFingerprint == null) {
+            throw new IOException("Couldn't fingerprint the compiler classes");
+        }
+        final Properties properties = new Properties();
+        properties.putAll(sourceHashes);
+        properties.setProperty(COMPILER_KEY, compilerFingerprint);
+        properties.store(os, "glang precompiled classes");
+    }
+
+    /**
+     * @return The class name to source hash map, or an empty map if the index was built by a different compiler (or
+     * this compiler couldn't be fingerprinted)
+     */
+    public static Map<String, String> read(InputStream is) throws IOException {
+        final String compilerFingerprint = CompiledClassCache.getCompilerFingerprintHex();
+        if (compilerFingerprint == null) {
+            return Map.of();
+        }
+        final Properties properties = new Properties();
+        properties.load(is);
+        if (!compilerFingerprint.equals(properties.remove(COMPILER_KEY))) {
+            return Map.of();
+        }
+        final Map<String, String> result = new HashMap<>();
+        properties.forEach((k, v) -> result.put((String)k, (String)v));
+        return result;
+    }
+}
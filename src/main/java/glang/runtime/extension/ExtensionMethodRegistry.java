@@ -2,15 +2,34 @@ package glang.runtime.extension;
 
 import glang.runtime.RuntimeUtil;
 
+import java.lang.invoke.SwitchPoint;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
+/**
+ * Registrations are copy-on-write: each one (or each batch, such as a {@link #registerAll}) publishes a new immutable
+ * {@link Index}, so readers never lock. The flattened methods for a receiver class, including the ones registered
+ * for its supertypes, are cached per class until the next publish.
+ * <p>
+ * Anything linked against the registry should be guarded by {@link #getSwitchPoint}, which is invalidated when the
+ * methods for that receiver and name change.
+ */
 public final class ExtensionMethodRegistry {
     public static final ExtensionMethodRegistry REGISTRY = new ExtensionMethodRegistry();
 
-    private final Map<Class<?>, Map<String, List<Method>>> lookup = new WeakHashMap<>();
+    private final ClassValue<FlattenedMethods> flattened = new ClassValue<>() {
+        @Override
+        protected FlattenedMethods computeValue(Class<?> type) {
+            return new FlattenedMethods(type);
+        }
+    };
+    private volatile Index index = Index.EMPTY;
+    private Map<Class<?>, Map<String, List<Method>>> batch; // Guarded by this
+    private final Map<String, Map<Class<?>, SwitchPoint>> switchPoints = new HashMap<>(); // Guarded by itself
+    private volatile Index defaults = Index.EMPTY;
     private volatile boolean loaded = false;
 
     private ExtensionMethodRegistry() {
@@ -21,9 +40,7 @@ public final class ExtensionMethodRegistry {
             throw new IllegalArgumentException("Extension method must have at least one parameter");
         }
         final Class<?> clazz = method.getParameterTypes()[0];
-        lookup.computeIfAbsent(RuntimeUtil.TO_WRAPPER_MAP.getOrDefault(clazz, clazz), c -> new HashMap<>())
-            .computeIfAbsent(name, m -> new ArrayList<>())
-            .add(method);
+        batch(pending -> add(pending, clazz, name, List.of(method)));
     }
 
     public void register(Method method) {
@@ -31,48 +48,55 @@ public final class ExtensionMethodRegistry {
     }
 
     public void registerAll(Class<?> clazz) {
-        for (final Method m : clazz.getDeclaredMethods()) {
-            if (!Modifier.isStatic(m.getModifiers()) || !m.isAnnotationPresent(ExtensionMethod.class)) continue;
-            register(m);
-        }
+        batch(pending -> {
+            for (final Method m : clazz.getDeclaredMethods()) {
+                if (!Modifier.isStatic(m.getModifiers()) || !m.isAnnotationPresent(ExtensionMethod.class)) continue;
+                register(m);
+            }
+        });
     }
 
     public void registerAllStatic(Class<?> clazz, Predicate<Method> predicate) {
         final int publicStatic = Modifier.PUBLIC | Modifier.STATIC;
-        for (final Method m : clazz.getDeclaredMethods()) {
-            if ((m.getModifiers() & publicStatic) != publicStatic || m.getParameterCount() == 0 || !predicate.test(m)) continue;
-            register(m);
-        }
+        batch(pending -> {
+            for (final Method m : clazz.getDeclaredMethods()) {
+                if ((m.getModifiers() & publicStatic) != publicStatic || m.getParameterCount() == 0 || !predicate.test(m)) continue;
+                register(m);
+            }
+        });
     }
 
     public void copy(Class<?> clazz, String from, String to) {
-        lookup.computeIfAbsent(RuntimeUtil.TO_WRAPPER_MAP.getOrDefault(clazz, clazz), c -> new HashMap<>())
-            .computeIfAbsent(to, m -> new ArrayList<>())
-            .addAll(getExtensionMethods(clazz, from));
+        batch(pending -> add(pending, clazz, to, flatten(pending, clazz, from)));
     }
 
     public List<Method> getExtensionMethods(Class<?> target, String name) {
-        return getExtensionMethods(target, name, new ArrayList<>(), new HashSet<>());
+        return flattened.get(target).snapshot(index, defaults).get(name);
     }
 
-    private List<Method> getExtensionMethods(Class<?> target, String name, List<Method> result, Set<Class<?>> interfaces) {
-        final var forClass = lookup.get(target);
-        if (forClass != null) {
-            final List<Method> forName = forClass.get(name);
-            if (forName != null) {
-                result.addAll(forName);
-            }
-        }
-        if (target.getSuperclass() != null) {
-            getExtensionMethods(target.getSuperclass(), name, result, interfaces);
+    /**
+     * @return A {@link SwitchPoint} that's invalidated once {@link #getExtensionMethods} would return something
+     * different for {@code target} and {@code name}. This must be retrieved <i>before</i> the methods are.
+     */
+    public SwitchPoint getSwitchPoint(Class<?> target, String name) {
+        load();
+        synchronized (switchPoints) {
+            return switchPoints.computeIfAbsent(name, k -> new WeakHashMap<>())
+                .computeIfAbsent(target, k -> new SwitchPoint());
         }
-        for (final Class<?> intf : target.getInterfaces()) {
-            // Prevent duplicates (e.g. ImmutableList < List < Collection, but also ImmutableList < ImmutableCollection < Collection)
-            if (interfaces.add(intf)) {
-                getExtensionMethods(intf, name, result, interfaces);
-            }
+    }
+
+    /**
+     * @return Whether the extension methods for {@code target} and {@code name} are the same as they were right after
+     * the defaults were loaded. Intrinsics that stand in for default extension methods check this.
+     */
+    public boolean hasDefaultExtensions(Class<?> target, String name) {
+        final Index index = this.index;
+        final Index defaults = this.defaults;
+        if (index == defaults) {
+            return true;
         }
-        return result;
+        return flattened.get(target).snapshot(index, defaults).hasDefaults(name);
     }
 
     public void load() {
@@ -87,18 +111,197 @@ public final class ExtensionMethodRegistry {
 
     public synchronized void reload() {
         loaded = false;
-        lookup.clear();
-        registerDefaults();
+        batch(pending -> {
+            pending.clear();
+            registerDefaults();
+        });
+        defaults = index;
         loaded = true;
     }
 
     public synchronized void registerDefaults() {
-        ServiceLoader.load(ExtensionMethodRegistrar.class).forEach(r -> {
+        batch(pending -> ServiceLoader.load(ExtensionMethodRegistrar.class).forEach(r -> {
             try {
                 r.register(this);
             } catch (ReflectiveOperationException e) {
                 throw new RuntimeException(e);
             }
+        }));
+    }
+
+    /**
+     * Runs {@code action} against a mutable copy of the index, publishing it once the outermost batch completes.
+     * Nested registrations join the current batch, so they're visible to each other (e.g. for {@link #copy}) before
+     * they're visible to readers. Nothing is published if {@code action} throws.
+     */
+    private synchronized void batch(BatchAction action) {
+        if (batch != null) {
+            action.run(batch);
+            return;
+        }
+        final Map<Class<?>, Map<String, List<Method>>> pending = new HashMap<>();
+        index.methods.forEach((clazz, byName) -> {
+            final Map<String, List<Method>> copy = new HashMap<>();
+            byName.forEach((name, methods) -> copy.put(name, new ArrayList<>(methods)));
+            pending.put(clazz, copy);
         });
+        batch = pending;
+        try {
+            action.run(pending);
+        } finally {
+            batch = null;
+        }
+        final Index oldIndex = index;
+        index = new Index(pending);
+        invalidate(oldIndex, index);
+    }
+
+    /**
+     * Invalidates the {@link SwitchPoint}s for every receiver that inherits a changed registration.
+     */
+    private void invalidate(Index oldIndex, Index newIndex) {
+        final Map<String, Set<Class<?>>> changed = new HashMap<>();
+        final Set<Class<?>> classes = new HashSet<>(oldIndex.methods.keySet());
+        classes.addAll(newIndex.methods.keySet());
+        for (final Class<?> clazz : classes) {
+            final Map<String, List<Method>> oldByName = oldIndex.methods.getOrDefault(clazz, Map.of());
+            final Map<String, List<Method>> newByName = newIndex.methods.getOrDefault(clazz, Map.of());
+            final Set<String> names = new HashSet<>(oldByName.keySet());
+            names.addAll(newByName.keySet());
+            for (final String name : names) {
+                if (!Objects.equals(oldByName.get(name), newByName.get(name))) {
+                    changed.computeIfAbsent(name, k -> new HashSet<>()).add(clazz);
+                }
+            }
+        }
+        if (changed.isEmpty()) return;
+
+        final List<SwitchPoint> invalidated = new ArrayList<>();
+        synchronized (switchPoints) {
+            changed.forEach((name, changedClasses) -> {
+                final Map<Class<?>, SwitchPoint> forName = switchPoints.get(name);
+                if (forName == null) return;
+                forName.entrySet().removeIf(entry -> {
+                    for (final Class<?> changedClass : changedClasses) {
+                        if (changedClass.isAssignableFrom(entry.getKey())) {
+                            invalidated.add(entry.getValue());
+                            return true;
+                        }
+                    }
+                    return false;
+                });
+            });
+        }
+        if (!invalidated.isEmpty()) {
+            SwitchPoint.invalidateAll(invalidated.toArray(SwitchPoint[]::new));
+        }
+    }
+
+    private static void add(
+        Map<Class<?>, Map<String, List<Method>>> pending, Class<?> clazz, String name, List<Method> methods
+    ) {
+        pending.computeIfAbsent(RuntimeUtil.TO_WRAPPER_MAP.getOrDefault(clazz, clazz), c -> new HashMap<>())
+            .computeIfAbsent(name, m -> new ArrayList<>())
+            .addAll(methods);
+    }
+
+    private static List<Method> flatten(Map<Class<?>, Map<String, List<Method>>> methods, Class<?> target, String name) {
+        final List<Method> result = new ArrayList<>();
+        flatten(methods, target, name, result, new HashSet<>());
+        return result;
+    }
+
+    private static void flatten(
+        Map<Class<?>, Map<String, List<Method>>> methods,
+        Class<?> target, String name, List<Method> result, Set<Class<?>> interfaces
+    ) {
+        final var forClass = methods.get(target);
+        if (forClass != null) {
+            final List<Method> forName = forClass.get(name);
+            if (forName != null) {
+                result.addAll(forName);
+            }
+        }
+        if (target.getSuperclass() != null) {
+            flatten(methods, target.getSuperclass(), name, result, interfaces);
+        }
+        for (final Class<?> intf : target.getInterfaces()) {
+            // Prevent duplicates (e.g. ImmutableList < List < Collection, but also ImmutableList < ImmutableCollection < Collection)
+            if (interfaces.add(intf)) {
+                flatten(methods, intf, name, result, interfaces);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface BatchAction {
+        void run(Map<Class<?>, Map<String, List<Method>>> pending);
+    }
+
+    private static final class Index {
+        static final Index EMPTY = new Index(Map.of());
+
+        final Map<Class<?>, Map<String, List<Method>>> methods;
+
+        Index(Map<Class<?>, Map<String, List<Method>>> methods) {
+            final Map<Class<?>, Map<String, List<Method>>> frozen = new HashMap<>();
+            methods.forEach((clazz, byName) -> {
+                final Map<String, List<Method>> frozenByName = new HashMap<>();
+                byName.forEach((name, forName) -> frozenByName.put(name, List.copyOf(forName)));
+                frozen.put(clazz, Map.copyOf(frozenByName));
+            });
+            this.methods = Map.copyOf(frozen);
+        }
+    }
+
+    /**
+     * The flattened methods for one receiver class, valid for a single {@link Index} and set of defaults. When a newer
+     * index is published, the next read starts a fresh cache for it.
+     */
+    private static final class FlattenedMethods {
+        private final Class<?> target;
+        private volatile Snapshot snapshot;
+
+        FlattenedMethods(Class<?> target) {
+            this.target = target;
+        }
+
+        Snapshot snapshot(Index index, Index defaults) {
+            Snapshot current = snapshot;
+            if (current == null || current.index != index || current.defaults != defaults) {
+                snapshot = current = new Snapshot(target, index, defaults);
+            }
+            return current;
+        }
+    }
+
+    private static final class Snapshot {
+        private final Class<?> target;
+        private final Index index;
+        private final Index defaults;
+        private final Map<String, List<Method>> byName = new ConcurrentHashMap<>();
+        private final Map<String, Boolean> hasDefaultsByName = new ConcurrentHashMap<>();
+
+        Snapshot(Class<?> target, Index index, Index defaults) {
+            this.target = target;
+            this.index = index;
+            this.defaults = defaults;
+        }
+
+        List<Method> get(String name) {
+            final List<Method> result = byName.get(name);
+            if (result != null) {
+                return result;
+            }
+            return byName.computeIfAbsent(name, n -> List.copyOf(flatten(index.methods, target, n)));
+        }
+
+        boolean hasDefaults(String name) {
+            final Boolean result = hasDefaultsByName.get(name);
+            if (result != null) {
+                return result;
+            }
+            return hasDefaultsByName.computeIfAbsent(name, n -> get(n).equals(flatten(defaults.methods, target, n)));
+        }
     }
 }
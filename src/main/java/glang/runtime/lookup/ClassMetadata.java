@@ -0,0 +1,84 @@
+package glang.runtime.lookup;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * Everything glang has looked up about a class. This is held by a {@link ClassValue}, so it's never evicted while the
+ * class is alive, yet doesn't keep the class (or its loader) from being unloaded.
+ */
+public final class ClassMetadata {
+    private static final ClassValue<ClassMetadata> METADATA = new ClassValue<>() {
+        @Override
+        protected ClassMetadata computeValue(Class<?> type) {
+            return new ClassMetadata(type);
+        }
+    };
+
+    private final Class<?> clazz;
+    private volatile FieldLookup instanceFields;
+    private volatile FieldLookup staticFields;
+    private volatile InstanceMethodLookup instanceMethods;
+    private volatile InstanceMethodLookup staticMethods;
+    private volatile SimpleMethodLookup<Constructor<?>> constructors;
+
+    private ClassMetadata(Class<?> clazz) {
+        this.clazz = clazz;
+    }
+
+    public static ClassMetadata get(Class<?> clazz) {
+        return METADATA.get(clazz);
+    }
+
+    public Class<?> getMetadataClass() {
+        return clazz;
+    }
+
+    public FieldLookup getFields(boolean forClass) {
+        FieldLookup result = forClass ? staticFields : instanceFields;
+        if (result == null) {
+            synchronized (this) {
+                result = forClass ? staticFields : instanceFields;
+                if (result == null) {
+                    result = new FieldLookup(clazz, forClass);
+                    if (forClass) {
+                        staticFields = result;
+                    } else {
+                        instanceFields = result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    public InstanceMethodLookup getMethods(boolean forClass) {
+        InstanceMethodLookup result = forClass ? staticMethods : instanceMethods;
+        if (result == null) {
+            synchronized (this) {
+                result = forClass ? staticMethods : instanceMethods;
+                if (result == null) {
+                    result = new InstanceMethodLookup(clazz, forClass);
+                    if (forClass) {
+                        staticMethods = result;
+                    } else {
+                        instanceMethods = result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    public SimpleMethodLookup<Constructor<?>> getConstructors() throws NoSuchMethodException {
+        SimpleMethodLookup<Constructor<?>> result = constructors;
+        if (result == null) {
+            synchronized (this) {
+                result = constructors;
+                if (result == null) {
+                    constructors = result = new SimpleMethodLookup<>(clazz, MethodLookup.Unreflector.CONSTRUCTOR);
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -1,52 +1,38 @@
 package glang.runtime.lookup;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.CaffeineSpec;
-import com.github.benmanes.caffeine.cache.LoadingCache;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
-import java.util.concurrent.CompletionException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class FieldLookup {
-    public static final CaffeineSpec CACHE_SPEC = CaffeineSpec.parse(System.getProperty(
-        "glang.fieldLookup.cacheSpec", "softValues"
-    ));
-
-    private static final LoadingCache<Class<?>, FieldLookup> INSTANCE_CACHE =
-        Caffeine.from(CaffeineSpec.parse(System.getProperty(
-            "glang.fieldLookup.instanceCacheSpec", "softValues"
-        ))).build(clazz -> new FieldLookup(clazz, false));
-    private static final LoadingCache<Class<?>, FieldLookup> STATIC_CACHE =
-        Caffeine.from(CaffeineSpec.parse(System.getProperty(
-            "glang.fieldLookup.staticCacheSpec", "softValues"
-        ))).build(clazz -> new FieldLookup(clazz, true));
-
     private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
 
-    private final LoadingCache<String, ResolvedField> lookup;
+    private final Map<String, ResolvedField> lookup = new ConcurrentHashMap<>();
     private final Class<?> clazz;
     private final boolean forClass;
 
-    private FieldLookup(Class<?> clazz, boolean forClass) {
-        lookup = Caffeine.from(CACHE_SPEC).build(name -> getField(clazz, forClass, name));
+    FieldLookup(Class<?> clazz, boolean forClass) {
         this.clazz = clazz;
         this.forClass = forClass;
     }
 
     public static FieldLookup get(Class<?> clazz, boolean forClass) {
-        return forClass ? STATIC_CACHE.get(clazz) : INSTANCE_CACHE.get(clazz);
+        return ClassMetadata.get(clazz).getFields(forClass);
     }
 
     public ResolvedField getField(String name) throws Throwable {
-        try {
-            return lookup.get(name);
-        } catch (CompletionException e) {
-            throw e.getCause();
+        final ResolvedField result = lookup.get(name);
+        if (result != null) {
+            return result;
         }
+        final ResolvedField field = getField(clazz, forClass, name);
+        final ResolvedField existing = lookup.putIfAbsent(name, field);
+        return existing != null ? existing : field;
     }
 
     public Object get(Object obj, String name) throws Throwable {
@@ -54,12 +40,16 @@ public final class FieldLookup {
     }
 
     public Object set(Object obj, String name, Object value) throws Throwable {
+        getSetter(name).invoke(obj, value);
+        return value;
+    }
+
+    public MethodHandle getSetter(String name) throws Throwable {
         final ResolvedField field = getField(name);
         if (field.setter == null) {
             throw new IllegalAccessException("Cannot set final field " + clazz.getCanonicalName() + "." + name);
         }
-        field.setter.invoke(obj, value);
-        return value;
+        return field.setter;
     }
 
     private static ResolvedField getField(Class<?> clazz, boolean isStatic, String name) throws Exception {
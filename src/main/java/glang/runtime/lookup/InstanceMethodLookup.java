@@ -1,102 +1,129 @@
 package glang.runtime.lookup;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.CaffeineSpec;
-import com.github.benmanes.caffeine.cache.LoadingCache;
+import glang.runtime.extension.ExtensionMethodRegistry;
+import org.jetbrains.annotations.Nullable;
 
+import java.lang.invoke.SwitchPoint;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public final class InstanceMethodLookup {
-    public static final CaffeineSpec CACHE_SPEC = CaffeineSpec.parse(System.getProperty(
-        "glang.instanceMethodLookup.cacheSpec", "softValues"
-    ));
-
-    private static final LoadingCache<Class<?>, InstanceMethodLookup> INSTANCE_CACHE =
-        Caffeine.from(CaffeineSpec.parse(System.getProperty(
-            "glang.instanceMethodLookup.instanceCacheSpec", "softValues"
-        ))).build(clazz -> new InstanceMethodLookup(clazz, false));
-    private static final LoadingCache<Class<?>, InstanceMethodLookup> STATIC_CACHE =
-        Caffeine.from(CaffeineSpec.parse(System.getProperty(
-            "glang.instanceMethodLookup.staticCacheSpec", "softValues"
-        ))).build(clazz -> new InstanceMethodLookup(clazz, true));
-
     private static final Set<String> CLASS_METHODS = Arrays.stream(Class.class.getMethods())
         .filter(m -> (m.getModifiers() & (Modifier.PUBLIC | Modifier.STATIC)) == Modifier.PUBLIC)
         .map(Method::getName)
         .collect(Collectors.toUnmodifiableSet());
-    private static final LoadingCache<String, MethodLookup> CLASS_LOOKUP = Caffeine.from(CACHE_SPEC)
-        .initialCapacity(CLASS_METHODS.size())
-        .maximumSize(CLASS_METHODS.size())
-        .build(name -> new SimpleMethodLookup<>(Class.class, MethodLookup.Unreflector.method(name, false, false)));
+    private static final Map<String, MethodLookup> CLASS_LOOKUP = new ConcurrentHashMap<>(CLASS_METHODS.size());
 
-    private final LoadingCache<String, Optional<MethodLookup>> lookup;
-    private final LoadingCache<String, Optional<MethodLookup>> extensionLookup;
+    private final Map<String, Optional<MethodLookup>> lookup = new ConcurrentHashMap<>();
+    private final Map<String, ExtensionEntry> extensionLookup = new ConcurrentHashMap<>();
+    private final Class<?> clazz;
     private final boolean forClass;
 
-    private InstanceMethodLookup(Class<?> clazz, boolean forClass) {
-        lookup = Caffeine.from(CACHE_SPEC).build(name -> {
+    InstanceMethodLookup(Class<?> clazz, boolean forClass) {
+        this.clazz = clazz;
+        this.forClass = forClass;
+    }
+
+    public static InstanceMethodLookup get(Class<?> clazz, boolean forClass) {
+        return ClassMetadata.get(clazz).getMethods(forClass);
+    }
+
+    public MethodLookup getLookup(String methodName, boolean requireDirect) throws NoSuchMethodException {
+        if (forClass && requireDirect) {
+            return getClassLookup(methodName);
+        }
+        final MethodLookup result = findLookup(methodName, requireDirect);
+        if (result == null) {
+            throw new NoSuchMethodException(
+                "public fn " + MethodLookup.Unreflector.method(methodName, forClass, forClass).getName(clazz)
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Like {@link #getLookup}, but returns {@code null} if there's no such method. Misses are cached, so this is
+     * cheap to call for methods that usually don't exist.
+     */
+    @Nullable
+    public MethodLookup findLookup(String methodName, boolean requireDirect) throws NoSuchMethodException {
+        if (forClass && requireDirect) {
+            return CLASS_METHODS.contains(methodName) ? getClassLookup(methodName) : null;
+        }
+        Optional<MethodLookup> result;
+        if (!requireDirect) {
+            result = getExtension(methodName);
+            if (result.isPresent()) {
+                return result.get();
+            }
+        }
+        result = getDirect(methodName);
+        if (result.isPresent()) {
+            return result.get();
+        }
+        return forClass && CLASS_METHODS.contains(methodName) ? getClassLookup(methodName) : null;
+    }
+
+    private Optional<MethodLookup> getDirect(String name) {
+        Optional<MethodLookup> result = lookup.get(name);
+        if (result == null) {
             try {
-                return Optional.of(new SimpleMethodLookup<>(
+                result = Optional.of(new SimpleMethodLookup<>(
                     clazz, MethodLookup.Unreflector.method(name, forClass, forClass)
                 ));
             } catch (NoSuchMethodException e) {
-                if (forClass && CLASS_METHODS.contains(name)) {
-                    return Optional.empty();
-                }
-                throw e;
+                result = Optional.empty();
             }
-        });
-        extensionLookup = Caffeine.from(CACHE_SPEC).build(name -> {
-            try {
-                return Optional.of(new SimpleMethodLookup<>(clazz, MethodLookup.Unreflector.extensionMethod(name)));
-            } catch (NoSuchMethodException e) {
-                return Optional.empty();
+            final Optional<MethodLookup> existing = lookup.putIfAbsent(name, result);
+            if (existing != null) {
+                result = existing;
             }
-        });
-        this.forClass = forClass;
+        }
+        return result;
     }
 
-    public static InstanceMethodLookup get(Class<?> clazz, boolean forClass) {
-        return forClass ? STATIC_CACHE.get(clazz) : INSTANCE_CACHE.get(clazz);
+    /**
+     * Extensions take priority over direct methods, so anything linked against {@link #getLookup} with
+     * {@code requireDirect} unset should be guarded by this.
+     */
+    public SwitchPoint getExtensionSwitchPoint(String name) {
+        return ExtensionMethodRegistry.REGISTRY.getSwitchPoint(clazz, name);
     }
 
-    public MethodLookup getLookup(String methodName, boolean requireDirect) throws NoSuchMethodException {
+    private Optional<MethodLookup> getExtension(String name) {
+        final ExtensionEntry entry = extensionLookup.get(name);
+        if (entry != null && !entry.switchPoint.hasBeenInvalidated()) {
+            return entry.lookup;
+        }
+        final SwitchPoint switchPoint = getExtensionSwitchPoint(name);
+        Optional<MethodLookup> result;
         try {
-            Optional<MethodLookup> result;
-            if (forClass) {
-                if (requireDirect) {
-                    return CLASS_LOOKUP.get(methodName);
-                }
-                result = extensionLookup.get(methodName);
-                if (result.isPresent()) {
-                    return result.get();
-                }
-                result = lookup.get(methodName);
-                //noinspection OptionalIsPresent
-                if (result.isPresent()) {
-                    return result.get();
-                }
-                return CLASS_LOOKUP.get(methodName);
-            } else {
-                if (!requireDirect) {
-                    result = extensionLookup.get(methodName);
-                    if (result.isPresent()) {
-                        return result.get();
-                    }
-                }
-                return lookup.get(methodName).orElseThrow(AssertionError::new);
-            }
-        } catch (CompletionException e) {
-            if (e.getCause() instanceof NoSuchMethodException e1) {
-                throw e1;
+            result = Optional.of(new SimpleMethodLookup<>(clazz, MethodLookup.Unreflector.extensionMethod(name)));
+        } catch (NoSuchMethodException e) {
+            result = Optional.empty();
+        }
+        extensionLookup.put(name, new ExtensionEntry(switchPoint, result));
+        return result;
+    }
+
+    private static MethodLookup getClassLookup(String name) throws NoSuchMethodException {
+        MethodLookup result = CLASS_LOOKUP.get(name);
+        if (result == null) {
+            result = new SimpleMethodLookup<>(Class.class, MethodLookup.Unreflector.method(name, false, false));
+            final MethodLookup existing = CLASS_LOOKUP.putIfAbsent(name, result);
+            if (existing != null) {
+                result = existing;
             }
-            throw e;
         }
+        return result;
+    }
+
+    private record ExtensionEntry(SwitchPoint switchPoint, Optional<MethodLookup> lookup) {
     }
 }
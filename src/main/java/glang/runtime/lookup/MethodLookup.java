@@ -1,60 +1,281 @@
 package glang.runtime.lookup;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.CaffeineSpec;
-import com.github.benmanes.caffeine.cache.LoadingCache;
 import glang.runtime.GlangRuntime;
 import glang.runtime.extension.ExtensionMethodRegistry;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.CompletionException;
 
 public abstract class MethodLookup {
-    public static final CaffeineSpec CACHE_SPEC = CaffeineSpec.parse(System.getProperty(
-        "glang.methodLookup.cacheSpec", "initialCapacity=4,maximumSize=64,softValues"
-    ));
+    /**
+     * The most arguments a spreader can pass. Calls with more go through {@link MethodHandle#invokeWithArguments}.
+     */
+    public static final int MAX_SPREAD_ARGS = 253;
+    /**
+     * The size the invoker table grows to, rounded up to a power of two. Once it's that big, a new argument shape
+     * replaces an entry that hasn't been used recently, from the few slots its hash probes.
+     */
+    public static final int MAX_CACHED_INVOKERS = Integer.getInteger("glang.methodLookup.maxCachedInvokers", 64);
 
     protected static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
 
-    protected final LoadingCache<List<Class<?>>, MethodHandle> cache = Caffeine.from(CACHE_SPEC).build(this::lookup);
+    private static final int MAX_TABLE_SIZE = MAX_CACHED_INVOKERS > 1 ? Integer.highestOneBit(MAX_CACHED_INVOKERS - 1) << 1 : 1;
+    private static final int INITIAL_TABLE_SIZE = Math.min(4, MAX_TABLE_SIZE);
+    private static final int MAX_PROBES = 8;
+
+    // An open-addressed table keyed by CachedInvoker.hash. Slots are only written under the lock, and a reader that
+    // misses an entry being added just resolves it again.
+    private volatile CachedInvoker[] table;
+    private int tableCount; // Guarded by this
 
     protected abstract MethodHandle lookup(List<Class<?>> args) throws NoSuchMethodException;
 
+    /**
+     * Folds an argument's class into the hash of an argument list, which starts as the argument count. This lets
+     * callers check {@link #findCachedInvoker} without allocating a key.
+     */
+    public static int hashArgType(int hash, Class<?> argType) {
+        return hash * 31 + argType.hashCode();
+    }
+
+    /**
+     * @return An invoker whose argument types have {@code hash}, or {@code null}. Different argument types can have the
+     * same hash, so the caller needs to check {@link CachedInvoker#matchesArg} for each argument.
+     */
+    @Nullable
+    public CachedInvoker findCachedInvoker(int hash) {
+        final CachedInvoker[] table = this.table;
+        if (table == null) {
+            return null;
+        }
+        final int mask = table.length - 1;
+        final int probes = Math.min(MAX_PROBES, table.length);
+        for (int i = 0, slot = spread(hash) & mask; i < probes; i++, slot = (slot + 1) & mask) {
+            final CachedInvoker cached = table[slot];
+            if (cached == null) {
+                return null;
+            }
+            if (cached.hash == hash) {
+                cached.markUsed();
+                return cached;
+            }
+        }
+        return null;
+    }
+
     public MethodHandle getInvoker(List<Class<?>> argTypes) throws Throwable {
-        try {
-            return cache.get(argTypes);
-        } catch (CompletionException e) {
-            throw e.getCause();
+        final int argCount = argTypes.size();
+        int hash = argCount;
+        for (int i = 0; i < argCount; i++) {
+            hash = hashArgType(hash, argTypes.get(i));
         }
+        final CachedInvoker cached = findCachedInvoker(hash);
+        if (cached != null && cached.argTypes.length == argCount) {
+            boolean matches = true;
+            for (int i = 0; i < argCount && matches; i++) {
+                matches = cached.argTypes[i] == argTypes.get(i);
+            }
+            if (matches) {
+                return cached.invoker;
+            }
+        }
+        return resolveInvoker(argTypes.toArray(Class<?>[]::new));
+    }
+
+    /**
+     * Looks up and caches the invoker for {@code argTypes}, which is owned by this lookup afterward.
+     */
+    public MethodHandle resolveInvoker(Class<?>[] argTypes) throws NoSuchMethodException {
+        return resolve(argTypes).invoker;
+    }
+
+    private CachedInvoker resolve(Class<?>[] argTypes) throws NoSuchMethodException {
+        final CachedInvoker result = new CachedInvoker(argTypes, lookup(List.of(argTypes)));
+        synchronized (this) {
+            CachedInvoker[] table = this.table;
+            if (table == null) {
+                this.table = table = new CachedInvoker[INITIAL_TABLE_SIZE];
+            }
+            final int mask = table.length - 1;
+            final int probes = Math.min(MAX_PROBES, table.length);
+            int emptySlot = -1;
+            for (int i = 0, slot = spread(result.hash) & mask; i < probes; i++, slot = (slot + 1) & mask) {
+                final CachedInvoker cached = table[slot];
+                if (cached == null) {
+                    emptySlot = slot;
+                    break;
+                }
+                if (cached.hash == result.hash && Arrays.equals(cached.argTypes, argTypes)) {
+                    return cached; // Resolved concurrently
+                }
+            }
+            if (emptySlot != -1) {
+                table[emptySlot] = result;
+                if (++tableCount * 4 > table.length * 3 && table.length < MAX_TABLE_SIZE) {
+                    this.table = rehash(table, table.length * 2);
+                }
+            } else if (table.length < MAX_TABLE_SIZE) {
+                final CachedInvoker[] grown = rehash(table, table.length * 2);
+                insert(grown, result);
+                this.table = grown;
+            } else {
+                table[evictionSlot(table, result.hash)] = result;
+            }
+        }
+        return result;
+    }
+
+    private CachedInvoker[] rehash(CachedInvoker[] table, int size) {
+        final CachedInvoker[] result = new CachedInvoker[size];
+        tableCount = 0;
+        for (final CachedInvoker cached : table) {
+            if (cached != null) {
+                insert(result, cached);
+            }
+        }
+        return result;
+    }
+
+    // Entries that no longer fit in their probes are dropped, since this is only a cache
+    private void insert(CachedInvoker[] table, CachedInvoker invoker) {
+        final int mask = table.length - 1;
+        final int probes = Math.min(MAX_PROBES, table.length);
+        for (int i = 0, slot = spread(invoker.hash) & mask; i < probes; i++, slot = (slot + 1) & mask) {
+            if (table[slot] == null) {
+                table[slot] = invoker;
+                tableCount++;
+                return;
+            }
+        }
+    }
+
+    // A second chance: entries used since the last eviction are skipped (and lose their mark), so hot entries survive
+    private static int evictionSlot(CachedInvoker[] table, int hash) {
+        final int mask = table.length - 1;
+        final int start = spread(hash) & mask;
+        final int probes = Math.min(MAX_PROBES, table.length);
+        for (int i = 0, slot = start; i < probes; i++, slot = (slot + 1) & mask) {
+            if (!table[slot].used) {
+                return slot;
+            }
+            table[slot].used = false;
+        }
+        return start;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * The invoker for the only method that accepts {@code argCount} arguments, if there's exactly one and it has no
+     * optional or varargs parameters. It keeps the method's own parameter types, and accepts exactly the arguments
+     * that are assignable to them, so a caller can link against it once rather than once per argument class.
+     */
+    @Nullable
+    public MethodHandle getSoleInvoker(int argCount) throws NoSuchMethodException {
+        return null;
     }
 
     public Object invoke(List<Object> args) throws Throwable {
-        final List<Class<?>> argTypes = new ArrayList<>(args.size());
+        return invoke(args.toArray());
+    }
+
+    public Object invoke(Object[] args) throws Throwable {
+        final int argCount = args.length;
+        int hash = argCount;
         for (final Object arg : args) {
-            argTypes.add(GlangRuntime.getClass(arg));
+            hash = hashArgType(hash, GlangRuntime.getClass(arg));
         }
-        return getInvoker(argTypes).invokeWithArguments(args);
+        final CachedInvoker cached = findCachedInvoker(hash);
+        if (cached != null && cached.argTypes.length == argCount) {
+            boolean matches = true;
+            for (int i = 0; i < argCount && matches; i++) {
+                matches = cached.argTypes[i] == GlangRuntime.getClass(args[i]);
+            }
+            if (matches) {
+                return cached.invokeSpread(args);
+            }
+        }
+        final Class<?>[] argTypes = new Class<?>[argCount];
+        for (int i = 0; i < argCount; i++) {
+            argTypes[i] = GlangRuntime.getClass(args[i]);
+        }
+        return resolve(argTypes).invokeSpread(args);
     }
 
     public Object invoke() throws Throwable {
         return getInvoker(List.of()).invoke();
     }
 
-    protected record ApplicableMethod<E extends Executable>(E method, int minimumArgs, int maximumArgs, Class<?>[] argTypes) {
-        public static <E extends Executable> Comparator<ApplicableMethod<E>> createComparator() {
-            return Comparator.comparingInt(m -> m.maximumArgs - m.minimumArgs);
+    public static final class CachedInvoker {
+        private final Class<?>[] argTypes;
+        private final int hash;
+        private final MethodHandle invoker;
+        private volatile MethodHandle spreader;
+        // Racy, but a lost update only affects which entry is evicted
+        private boolean used;
+
+        CachedInvoker(Class<?>[] argTypes, MethodHandle invoker) {
+            this.argTypes = argTypes;
+            this.invoker = invoker;
+            int hash = argTypes.length;
+            for (final Class<?> argType : argTypes) {
+                hash = hashArgType(hash, argType);
+            }
+            this.hash = hash;
+        }
+
+        private void markUsed() {
+            if (!used) {
+                used = true;
+            }
+        }
+
+        public boolean matchesArg(int index, Class<?> argType) {
+            return argTypes[index] == argType;
+        }
+
+        public int argCount() {
+            return argTypes.length;
+        }
+
+        public MethodHandle invoker() {
+            return invoker;
+        }
+
+        /**
+         * @return {@link #invoker()} adapted to {@code (Object[])Object}
+         */
+        public MethodHandle spreader() {
+            MethodHandle result = spreader;
+            if (result == null) {
+                spreader = result = invoker
+                    .asType(MethodType.genericMethodType(argTypes.length))
+                    .asSpreader(Object[].class, argTypes.length);
+            }
+            return result;
+        }
+
+        Object invokeSpread(Object[] args) throws Throwable {
+            if (args.length > MAX_SPREAD_ARGS) {
+                return invoker.invokeWithArguments(args);
+            }
+            return (Object)spreader().invokeExact(args);
         }
     }
 
+    protected record ApplicableMethod<E extends Executable>(E method, int minimumArgs, int maximumArgs, Class<?>[] argTypes) {
+    }
+
     public interface Unreflector<E extends Executable> {
         Unreflector<Constructor<?>> CONSTRUCTOR = new Unreflector<>() {
             @Override
@@ -0,0 +1,234 @@
+package glang.runtime.lookup;
+
+import glang.runtime.RuntimeUtil;
+
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * Overload resolution for a single arity, built once and then reused for every argument shape with that arity.
+ * Candidates that accept an argument are found per distinct parameter type rather than per method, and the most
+ * specific candidate is picked with precomputed bitsets.
+ * <p>
+ * Ranking follows Java's most specific method rules, with a few differences to fit glang's (always boxed) values:
+ * <ul>
+ *     <li>Fixed arity methods beat ones with omitted optional parameters, which beat varargs methods.</li>
+ *     <li>Primitive parameters are compared as their wrapper types, but are more specific than the wrapper itself.</li>
+ *     <li>
+ *         Ambiguities (usually from {@code null} arguments) are broken by preferring non-bridge methods, then methods
+ *         with fewer array parameters, then methods from subtypes, and finally by signature.
+ *     </li>
+ * </ul>
+ */
+final class OverloadTable<E extends Executable> {
+    private static final int PHASE_FIXED = 0;
+    private static final int PHASE_OPTIONAL = 1;
+    private static final int PHASE_VARARGS = 2;
+    private static final int PHASE_COUNT = 3;
+
+    private final List<MethodLookup.ApplicableMethod<E>> candidates;
+    private final int words;
+    private final long[] all;
+    private final Position[] positions;
+    private final long[][] phaseMasks;
+    private final long[][] dominates;
+
+    OverloadTable(List<MethodLookup.ApplicableMethod<E>> applicable, int argCount) {
+        final List<MethodLookup.ApplicableMethod<E>> sorted = new ArrayList<>();
+        for (final MethodLookup.ApplicableMethod<E> method : applicable) {
+            if (method.minimumArgs() <= argCount && method.maximumArgs() >= argCount) {
+                sorted.add(method);
+            }
+        }
+        sorted.sort(
+            Comparator.<MethodLookup.ApplicableMethod<E>>comparingInt(m -> phase(m, argCount))
+                .thenComparing(m -> m.method() instanceof Method method && method.isBridge())
+                .thenComparingLong(m -> Arrays.stream(m.argTypes()).filter(Class::isArray).count())
+                .thenComparing(m -> -depth(m.method().getDeclaringClass()))
+                .thenComparing(m -> m.method().toString())
+        );
+        candidates = List.copyOf(sorted);
+        final int count = candidates.size();
+        words = (count + 63) >>> 6;
+
+        all = new long[words];
+        for (int i = 0; i < count; i++) {
+            set(all, i);
+        }
+
+        final Class<?>[][] types = new Class<?>[count][];
+        for (int i = 0; i < count; i++) {
+            types[i] = parameterTypes(candidates.get(i), argCount);
+        }
+
+        positions = new Position[argCount];
+        for (int arg = 0; arg < argCount; arg++) {
+            final Map<Class<?>, long[]> byType = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                set(byType.computeIfAbsent(types[i][arg], k -> new long[words]), i);
+            }
+            positions[arg] = new Position(byType.keySet().toArray(Class<?>[]::new), byType.values().toArray(long[][]::new));
+        }
+
+        phaseMasks = new long[PHASE_COUNT][words];
+        dominates = new long[count][words];
+        for (int i = 0; i < count; i++) {
+            set(phaseMasks[phase(candidates.get(i), argCount)], i);
+            for (int j = 0; j < count; j++) {
+                if (i != j && atLeastAsSpecific(types[i], types[j]) && !atLeastAsSpecific(types[j], types[i])) {
+                    set(dominates[i], j);
+                }
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return candidates.isEmpty();
+    }
+
+    /**
+     * @return The only candidate for this arity, or {@code null} if there isn't exactly one
+     */
+    MethodLookup.ApplicableMethod<E> sole() {
+        return candidates.size() == 1 ? candidates.get(0) : null;
+    }
+
+    /**
+     * @param args The runtime argument classes, starting at {@code argOffset}
+     * @return The best match, or {@code null} if nothing accepts {@code args}
+     */
+    MethodLookup.ApplicableMethod<E> find(List<Class<?>> args, int argOffset) {
+        final long[] matches = all.clone();
+        for (int arg = 0; arg < positions.length; arg++) {
+            final Position position = positions[arg];
+            final Class<?> argType = args.get(arg + argOffset);
+            final long[] accepted = new long[words];
+            for (int t = 0; t < position.types.length; t++) {
+                if (RuntimeUtil.isAssignableFrom(position.types[t], argType)) {
+                    or(accepted, position.masks[t]);
+                }
+            }
+            if (!and(matches, accepted)) {
+                return null;
+            }
+        }
+
+        for (final long[] phaseMask : phaseMasks) {
+            final long[] inPhase = matches.clone();
+            if (and(inPhase, phaseMask)) {
+                System.arraycopy(inPhase, 0, matches, 0, words);
+                break;
+            }
+        }
+
+        final long[] best = matches.clone();
+        for (int i = nextSet(matches, 0); i >= 0; i = nextSet(matches, i + 1)) {
+            andNot(best, dominates[i]);
+        }
+        // The candidates are presorted by the tie-breaking rules, so the first most specific one wins
+        final int result = nextSet(best, 0);
+        return candidates.get(result >= 0 ? result : nextSet(matches, 0));
+    }
+
+    private static int phase(MethodLookup.ApplicableMethod<?> method, int argCount) {
+        if (method.method().isVarArgs()) {
+            return PHASE_VARARGS;
+        }
+        return argCount < method.argTypes().length ? PHASE_OPTIONAL : PHASE_FIXED;
+    }
+
+    /**
+     * The type each argument is checked against, matching {@link SimpleMethodLookup}'s applicability rules. Omitted
+     * and present optional parameters accept anything.
+     */
+    private static Class<?>[] parameterTypes(MethodLookup.ApplicableMethod<?> method, int argCount) {
+        final Class<?>[] declared = method.argTypes();
+        final Class<?>[] result = new Class<?>[argCount];
+        final int varargsStart = method.method().isVarArgs() ? declared.length - 1 : Integer.MAX_VALUE;
+        for (int i = 0; i < argCount; i++) {
+            if (i >= varargsStart) {
+                result[i] = declared[declared.length - 1].componentType();
+            } else if (i < method.minimumArgs()) {
+                result[i] = declared[i];
+            } else {
+                result[i] = Object.class;
+            }
+        }
+        return result;
+    }
+
+    private static boolean atLeastAsSpecific(Class<?>[] a, Class<?>[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if (!atLeastAsSpecific(a[i], b[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean atLeastAsSpecific(Class<?> a, Class<?> b) {
+        if (a == b) {
+            return true;
+        }
+        final Class<?> boxedA = a.isPrimitive() ? RuntimeUtil.TO_WRAPPER_MAP.get(a) : a;
+        final Class<?> boxedB = b.isPrimitive() ? RuntimeUtil.TO_WRAPPER_MAP.get(b) : b;
+        if (boxedA == boxedB) {
+            return a.isPrimitive(); // int is more specific than Integer, but not the other way around
+        }
+        return boxedB.isAssignableFrom(boxedA);
+    }
+
+    private static int depth(Class<?> clazz) {
+        int result = 0;
+        if (clazz.getSuperclass() != null) {
+            result = depth(clazz.getSuperclass()) + 1;
+        }
+        for (final Class<?> intf : clazz.getInterfaces()) {
+            result = Math.max(result, depth(intf) + 1);
+        }
+        return result;
+    }
+
+    private static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    private static void or(long[] target, long[] bits) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] |= bits[i];
+        }
+    }
+
+    private static boolean and(long[] target, long[] bits) {
+        long any = 0;
+        for (int i = 0; i < target.length; i++) {
+            any |= target[i] &= bits[i];
+        }
+        return any != 0;
+    }
+
+    private static void andNot(long[] target, long[] bits) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] &= ~bits[i];
+        }
+    }
+
+    private static int nextSet(long[] bits, int from) {
+        int word = from >>> 6;
+        if (word >= bits.length) {
+            return -1;
+        }
+        long current = bits[word] & (-1L << from);
+        while (current == 0) {
+            if (++word == bits.length) {
+                return -1;
+            }
+            current = bits[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(current);
+    }
+
+    private record Position(Class<?>[] types, long[][] masks) {
+    }
+}
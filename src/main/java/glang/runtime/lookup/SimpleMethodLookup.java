@@ -9,6 +9,7 @@ import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Executable;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class SimpleMethodLookup<E extends Executable> extends MethodLookup {
     public static final int MAX_ARGS = 255; // Maybe increase this?
@@ -16,6 +17,7 @@ public class SimpleMethodLookup<E extends Executable> extends MethodLookup {
     private final Class<?> clazz;
     private final Unreflector<E> unreflector;
     private final List<ApplicableMethod<E>> applicableMethods;
+    private final AtomicReferenceArray<OverloadTable<E>> overloadTables;
 
     public SimpleMethodLookup(Class<?> clazz, Unreflector<E> unreflector, int minArgs, int maxArgs) throws NoSuchMethodException {
         this.clazz = clazz;
@@ -33,6 +35,11 @@ public class SimpleMethodLookup<E extends Executable> extends MethodLookup {
             throw new NoSuchMethodException(toString());
         }
         this.applicableMethods = List.copyOf(applicableMethods);
+        int maxArity = 0;
+        for (final ApplicableMethod<E> method : applicableMethods) {
+            maxArity = Math.max(maxArity, method.maximumArgs());
+        }
+        overloadTables = new AtomicReferenceArray<>(maxArity + 1);
     }
 
     public SimpleMethodLookup(Class<?> clazz, Unreflector<E> unreflector, int minArgs) throws NoSuchMethodException {
@@ -52,31 +59,40 @@ public class SimpleMethodLookup<E extends Executable> extends MethodLookup {
     protected MethodHandle lookup(List<Class<?>> args) throws NoSuchMethodException {
         final int argOffset = unreflector.getArgOffset();
         final int argCount = args.size() - argOffset;
-        final List<ApplicableMethod<E>> matches = new ArrayList<>();
-        methodSearch:
-        for (final ApplicableMethod<E> method : applicableMethods) {
-            if (method.minimumArgs() > argCount || method.maximumArgs() < argCount) continue;
-            final Class<?>[] argTypes = method.argTypes();
-            for (int i = 0, l = method.minimumArgs(); i < l; i++) {
-                if (!RuntimeUtil.isAssignableFrom(argTypes[i], args.get(i + argOffset))) {
-                    continue methodSearch;
-                }
-            }
-            if (method.method().isVarArgs()) {
-                final Class<?> argType = argTypes[argTypes.length - 1].componentType();
-                for (int i = argTypes.length - 1; i < argCount; i++) {
-                    if (!RuntimeUtil.isAssignableFrom(argType, args.get(i + argOffset))) {
-                        continue methodSearch;
-                    }
-                }
-            }
-            matches.add(method);
+        final OverloadTable<E> table = getOverloadTable(argCount);
+        final ApplicableMethod<E> match = table != null ? table.find(args, argOffset) : null;
+        if (match == null) {
+            throw new NoSuchMethodException(this + " with args " + RuntimeUtil.prettyPrint(args));
         }
+        return adapt(match, args);
+    }
 
-        if (matches.isEmpty()) {
-            throw new NoSuchMethodException(this + " with args " + RuntimeUtil.prettyPrint(args));
+    @Nullable
+    @Override
+    public MethodHandle getSoleInvoker(int argCount) throws NoSuchMethodException {
+        if (unreflector.getArgOffset() != 0) {
+            return null;
+        }
+        final OverloadTable<E> table = getOverloadTable(argCount);
+        final ApplicableMethod<E> sole = table != null ? table.sole() : null;
+        if (sole == null || sole.minimumArgs() != sole.maximumArgs()) {
+            return null;
+        }
+        return adapt(sole, List.of(sole.argTypes()));
+    }
+
+    private OverloadTable<E> getOverloadTable(int argCount) {
+        if (argCount < 0 || argCount >= overloadTables.length()) {
+            return null;
+        }
+        OverloadTable<E> result = overloadTables.get(argCount);
+        if (result == null) {
+            result = new OverloadTable<>(applicableMethods, argCount);
+            if (!overloadTables.compareAndSet(argCount, null, result)) {
+                result = overloadTables.get(argCount);
+            }
         }
-        return adapt(findBestMatch(matches), args);
+        return result.isEmpty() ? null : result;
     }
 
     private MethodHandle adapt(ApplicableMethod<E> method, List<Class<?>> args) throws NoSuchMethodException {
@@ -126,20 +142,6 @@ public class SimpleMethodLookup<E extends Executable> extends MethodLookup {
         return handle;
     }
 
-    private static <E extends Executable> ApplicableMethod<E> findBestMatch(List<ApplicableMethod<E>> matches) {
-        ApplicableMethod<E> singleMatch = matches.get(0);
-        if (matches.size() > 1) {
-            final Comparator<ApplicableMethod<E>> comparator = ApplicableMethod.createComparator();
-            for (int i = 1, l = matches.size(); i < l; i++) {
-                final ApplicableMethod<E> match = matches.get(i);
-                if (comparator.compare(match, singleMatch) < 0) {
-                    singleMatch = match;
-                }
-            }
-        }
-        return singleMatch;
-    }
-
     private static int getMinArgs(Executable method) {
         int count = method.getParameterCount();
         if (method.isVarArgs()) {
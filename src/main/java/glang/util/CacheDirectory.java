@@ -0,0 +1,30 @@
+package glang.util;
+
+import java.nio.file.Path;
+
+public final class CacheDirectory {
+    private static final Path CACHE_DIR = findCacheDir();
+
+    private CacheDirectory() {
+    }
+
+    /**
+     * The directory glang may cache things in across runs, configured with {@code -Dglang.cacheDir}. An empty value
+     * disables caching, in which case this returns {@code null}.
+     */
+    public static Path get() {
+        return CACHE_DIR;
+    }
+
+    private static Path findCacheDir() {
+        final String configured = System.getProperty("glang.cacheDir");
+        if (configured != null) {
+            return configured.isEmpty() ? null : Path.of(configured).toAbsolutePath();
+        }
+        final String xdgCache = System.getenv("XDG_CACHE_HOME");
+        if (xdgCache != null && !xdgCache.isEmpty()) {
+            return Path.of(xdgCache, "glang");
+        }
+        return Path.of(System.getProperty("user.home"), ".cache", "glang");
+    }
+}
@@ -23,6 +23,66 @@ public class TestMain {
 //        testCL(args);
         testCode(args);
 //        testInvoke();
+        testImportedSoleOverload();
+        testImportOntoPrimitiveLocal();
+    }
+
+    // A call to an import with one overload must still report arguments it doesn't accept as a missing overload
+    private static void testImportedSoleOverload() {
+        for (final String call : new String[] {"toBinaryString(5L)", "toBinaryString(null)"}) {
+            final Throwable thrown = runSource(
+                "a.b.soleOverload", "import java.lang.Integer.toBinaryString\nprintln(toBinaryString(5))\n" + call
+            );
+            if (!(thrown instanceof NoSuchMethodException)) {
+                throw new AssertionError(call + " should throw NoSuchMethodException, not " + thrown, thrown);
+            }
+        }
+    }
+
+    // The local was inferred as an int, but the import stores an object into its slot
+    private static void testImportOntoPrimitiveLocal() {
+        final Throwable thrown = runSource(
+            "a.b.importOntoLocal", "{ var abs = 1; abs = abs + 1; import java.lang.Math.abs; println(abs(-5)) }"
+        );
+        if (thrown != null) {
+            throw new AssertionError("Import onto a primitive local failed", thrown);
+        }
+    }
+
+    private static Throwable runSource(String namespacePath, String source) {
+        final Map<String, ClassWriter> result = new HashMap<>();
+        final GlangCompiler compiler;
+        try {
+            compiler = new GlangCompiler(
+                namespacePath, source,
+                c -> result.computeIfAbsent(c, k -> new ClassWriter(ClassWriter.COMPUTE_FRAMES))
+            );
+            compiler.compile();
+            compiler.getErrorCollector().throwIfFailed();
+        } catch (CompileFailedException e) {
+            throw new AssertionError(e.getMessage(), e);
+        }
+        final ClassLoader cl = new ClassLoader() {
+            @Override
+            protected Class<?> findClass(String name) throws ClassNotFoundException {
+                final ClassWriter writer = result.get(name);
+                if (writer == null) {
+                    throw new ClassNotFoundException(name);
+                }
+                final byte[] bytes = writer.toByteArray();
+                return defineClass(name, bytes, 0, bytes.length);
+            }
+        };
+        try {
+            cl.loadClass(compiler.getClassName())
+                .getDeclaredMethod("main", String[].class)
+                .invoke(null, (Object)new String[0]);
+        } catch (InvocationTargetException e) {
+            return e.getCause();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+        return null;
     }
 
     private static void testCL(String[] args) {